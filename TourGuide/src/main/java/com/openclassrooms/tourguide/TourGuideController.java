@@ -1,29 +1,72 @@
 package com.openclassrooms.tourguide;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import com.openclassrooms.tourguide.dto.AttractionStatsDTO;
+import com.openclassrooms.tourguide.dto.HeatmapCellDTO;
+import com.openclassrooms.tourguide.dto.LeaderboardEntryDTO;
+import com.openclassrooms.tourguide.dto.LocationHistoryBody;
 import com.openclassrooms.tourguide.dto.NearbyAttractionDTO;
 import com.openclassrooms.tourguide.dto.NearbyAttractionsResponse;
+import com.openclassrooms.tourguide.dto.NearbyUserDTO;
+import com.openclassrooms.tourguide.dto.UserRewardDTO;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
 
+import com.openclassrooms.tourguide.leaderboard.RewardLeaderboard;
+import com.openclassrooms.tourguide.proximity.AttractionProximityIndex;
+import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.stats.ActivityStatistics;
+import com.openclassrooms.tourguide.stream.UserEventStream;
 import com.openclassrooms.tourguide.user.User;
-import com.openclassrooms.tourguide.user.UserReward;
+import com.openclassrooms.tourguide.user.UserSnapshot;
 
 import tripPricer.Provider;
 
 @RestController
 public class TourGuideController {
+	// Version counters restart at 0 on every node and every restart; the epoch keeps their tags apart
+	private static final String ETAG_EPOCH = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
 
 	@Autowired
 	TourGuideService tourGuideService;
+
+	@Autowired
+	UserEventStream userEventStream;
+
+	@Autowired
+	RewardLeaderboard rewardLeaderboard;
+
+	@Autowired
+	ActivityStatistics activityStatistics;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	RewardsService rewardsService;
+
+	@Autowired
+	AttractionProximityIndex attractionProximityIndex;
 	
     @RequestMapping("/")
     public String index() {
@@ -31,8 +74,28 @@ public class TourGuideController {
     }
     
     @RequestMapping("/getLocation") 
-    public VisitedLocation getLocation(@RequestParam String userName) {
-    	return tourGuideService.getUserLocation(getUser(userName));
+    public VisitedLocation getLocation(@RequestParam String userName, WebRequest request, HttpServletResponse response) {
+    	User user = getUser(userName);
+    	UserSnapshot snapshot = user.getSnapshot();
+    	if (!snapshot.getVisitedLocations().isEmpty() && request.checkNotModified(etag(snapshot, request, response))) {
+    		return null;
+    	}
+    	return tourGuideService.getUserLocation(user);
+    }
+    
+    /**
+     * Locations visited between two instants (epoch millis, inclusive), oldest first and paged.
+     */
+    @RequestMapping("/getLocationHistory")
+    public ResponseEntity<StreamingResponseBody> getLocationHistory(@RequestParam String userName,
+    		@RequestParam(defaultValue = "0") long from,
+    		@RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+    		@RequestParam(defaultValue = "0") int offset,
+    		@RequestParam(defaultValue = "100") int limit) {
+    	User user = getUser(userName);
+    	return ResponseEntity.ok()
+    			.contentType(MediaType.APPLICATION_JSON)
+    			.body(new LocationHistoryBody(objectMapper.getFactory(), user, from, to, offset, limit));
     }
     
     //  TODO: Change this method to no longer return a List of Attractions.
@@ -47,36 +110,96 @@ public class TourGuideController {
     @RequestMapping("/getNearbyAttractions") 
     public NearbyAttractionsResponse getNearbyAttractions(@RequestParam String userName) {
         User user = getUser(userName);
-        VisitedLocation visitedLocation = tourGuideService.getUserLocation(user);
+        double[] coordinates = new double[2];
+        tourGuideService.readUserCoordinates(user, coordinates);
+        double latitude = coordinates[0];
+        double longitude = coordinates[1];
 
         // On récupère les 5 attractions les plus proches (classement existant)
-        List<Attraction> closestFive = tourGuideService.getNearByAttractions(visitedLocation);
+        List<Attraction> closestFive = tourGuideService.getNearByAttractions(latitude, longitude);
 
         List<NearbyAttractionDTO> dtoList = closestFive.stream()
                 .map(attraction -> new NearbyAttractionDTO(
                         attraction.attractionName,
                         attraction.latitude,
                         attraction.longitude,
-                        visitedLocation.location.latitude,
-                        visitedLocation.location.longitude,
-                        tourGuideService.getDistance(attraction, visitedLocation.location),
+                        latitude,
+                        longitude,
+                        tourGuideService.getDistance(attraction, latitude, longitude),
                         tourGuideService.getRewardPoints(attraction, user)
                 ))
                 .collect(Collectors.toList());
 
         return new NearbyAttractionsResponse(
                 user.getUserName(),
-                visitedLocation.location.latitude,
-                visitedLocation.location.longitude,
+                latitude,
+                longitude,
                 dtoList
         );
     }
     
+    /**
+     * Rewards as compact DTOs; JSON by default, Smile or CBOR when requested through the Accept header.
+     */
     @RequestMapping("/getRewards") 
-    public List<UserReward> getRewards(@RequestParam String userName) {
-    	return tourGuideService.getUserRewards(getUser(userName));
+    public List<UserRewardDTO> getRewards(@RequestParam String userName, WebRequest request, HttpServletResponse response) {
+    	User user = getUser(userName);
+    	if (request.checkNotModified(etag(user.getSnapshot(), request, response))) {
+    		return null;
+    	}
+    	return tourGuideService.getUserRewards(user).stream()
+    			.map(UserRewardDTO::new)
+    			.collect(Collectors.toList());
     }
        
+    /**
+     * Streams the user's new locations ("location" events) and rewards ("reward" events)
+     * as they are recorded, so clients no longer need to poll /getLocation and /getRewards.
+     */
+    @RequestMapping(value = "/streamUserEvents", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserEvents(@RequestParam String userName) {
+        return userEventStream.subscribe(getUser(userName));
+    }
+
+    /**
+     * Users with the most cumulative reward points, best first.
+     */
+    @RequestMapping("/getLeaderboard")
+    public List<LeaderboardEntryDTO> getLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+    	return rewardLeaderboard.getTop(limit);
+    }
+
+    @RequestMapping("/getLeaderboardRank")
+    public LeaderboardEntryDTO getLeaderboardRank(@RequestParam String userName) {
+    	return rewardLeaderboard.getStanding(getUser(userName));
+    }
+
+    /**
+     * Users whose latest location is within the given number of miles of the attraction, closest first.
+     */
+    @RequestMapping("/getUsersNearAttraction")
+    public List<NearbyUserDTO> getUsersNearAttraction(@RequestParam String attractionName,
+    		@RequestParam(defaultValue = "10") double miles) {
+    	Attraction attraction = rewardsService.getAttractions().stream()
+    			.filter(a -> a.attractionName.equalsIgnoreCase(attractionName))
+    			.findFirst()
+    			.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown attraction " + attractionName));
+    	return attractionProximityIndex.getUsersWithin(attraction, miles);
+    }
+
+    @RequestMapping("/getAttractionStats")
+    public List<AttractionStatsDTO> getAttractionStats() {
+    	return activityStatistics.getAttractionStats();
+    }
+
+    /**
+     * Density of tracked locations per geographic cell.
+     */
+    @RequestMapping("/getHeatmap")
+    public List<HeatmapCellDTO> getHeatmap() {
+    	return activityStatistics.getHeatmap();
+    }
+
     @RequestMapping("/getTripDeals")
     public List<Provider> getTripDeals(@RequestParam String userName) {
     	return tourGuideService.getTripDeals(getUser(userName));
@@ -85,6 +208,18 @@ public class TourGuideController {
     private User getUser(String userName) {
     	return tourGuideService.getUser(userName);
     }
+
+    /**
+     * ETag built from the user's version counter, so a 304 is decided without serializing anything.
+     * The process epoch is part of the tag so that a tag issued by another node, or before a
+     * restart, never matches; so is the Accept header, because JSON, Smile and CBOR bodies differ,
+     * which is why caches are told with {@code Vary: Accept} to key responses on it too.
+     */
+    private String etag(UserSnapshot snapshot, WebRequest request, HttpServletResponse response) {
+    	response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    	String accept = request.getHeader(HttpHeaders.ACCEPT);
+    	return "\"" + ETAG_EPOCH + "-" + snapshot.getVersion() + (accept == null ? "" : "-" + Integer.toHexString(accept.hashCode())) + "\"";
+    }
    
 
 }
\ No newline at end of file
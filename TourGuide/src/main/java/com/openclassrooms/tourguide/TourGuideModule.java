@@ -1,18 +1,35 @@
 package com.openclassrooms.tourguide;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 import gpsUtil.GpsUtil;
 import rewardCentral.RewardCentral;
+import tripPricer.TripPricer;
+import com.openclassrooms.tourguide.resilience.ResiliencePolicy;
+import com.openclassrooms.tourguide.resilience.ResilientExecutor;
+import com.openclassrooms.tourguide.resilience.ResilientGpsUtil;
+import com.openclassrooms.tourguide.resilience.ResilientRewardCentral;
+import com.openclassrooms.tourguide.resilience.ResilientTripPricer;
 import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.simulator.LatencyModel;
+import com.openclassrooms.tourguide.simulator.MovementModel;
+import com.openclassrooms.tourguide.simulator.SimulatedGpsUtil;
+import com.openclassrooms.tourguide.simulator.SimulatedRewardCentral;
 
 @Configuration
 public class TourGuideModule {
+
+	@Autowired
+	private Environment environment;
 	
 	@Bean
 	public GpsUtil getGpsUtil() {
-		return new GpsUtil();
+		return new ResilientGpsUtil(gpsUtilSource(), resilientExecutor("gps-util"));
 	}
 	
 	@Bean
@@ -22,7 +39,55 @@ public class TourGuideModule {
 	
 	@Bean
 	public RewardCentral getRewardCentral() {
-		return new RewardCentral();
+		RewardCentral source = isSimulated()
+				? new SimulatedRewardCentral(latencyModel("reward-central"))
+				: new RewardCentral();
+		return new ResilientRewardCentral(source, resilientExecutor("reward-central"));
+	}
+
+	@Bean
+	public TripPricer getTripPricer() {
+		return new ResilientTripPricer(new TripPricer(), resilientExecutor("trip-pricer"));
+	}
+
+	/**
+	 * The gpsUtil library, or an in-process simulator of it when tourguide.simulator.enabled is set.
+	 */
+	private GpsUtil gpsUtilSource() {
+		GpsUtil gpsUtil = new GpsUtil();
+		if (!isSimulated()) {
+			return gpsUtil;
+		}
+		String prefix = "tourguide.simulator.";
+		return new SimulatedGpsUtil(gpsUtil.getAttractions(),
+				MovementModel.fromProperty(environment.getProperty(prefix + "movement", "attraction-clusters")),
+				environment.getProperty(prefix + "step-miles", Double.class, 5.0),
+				environment.getProperty(prefix + "switch-probability", Double.class, 0.05),
+				latencyModel("gps-util"));
+	}
+
+	private boolean isSimulated() {
+		return environment.getProperty("tourguide.simulator.enabled", Boolean.class, false);
+	}
+
+	private LatencyModel latencyModel(String dependency) {
+		String prefix = "tourguide.simulator." + dependency + ".";
+		return new LatencyModel(
+				environment.getProperty(prefix + "median-latency-ms", Double.class, 50.0),
+				environment.getProperty(prefix + "latency-sigma", Double.class, 0.5),
+				environment.getProperty(prefix + "spike-probability", Double.class, 0.01),
+				environment.getProperty(prefix + "spike-latency-ms", Long.class, 1000L));
+	}
+
+	private ResilientExecutor resilientExecutor(String dependency) {
+		String prefix = "tourguide.resilience." + dependency + ".";
+		ResiliencePolicy policy = new ResiliencePolicy(
+				Duration.ofMillis(environment.getProperty(prefix + "timeout-ms", Long.class, 2000L)),
+				environment.getProperty(prefix + "max-concurrent-calls", Integer.class, 100),
+				environment.getProperty(prefix + "hedging-enabled", Boolean.class, true),
+				environment.getProperty(prefix + "breaker-failure-threshold", Integer.class, 20),
+				Duration.ofMillis(environment.getProperty(prefix + "breaker-window-ms", Long.class, 10000L)));
+		return new ResilientExecutor(dependency, policy);
 	}
 	
 }
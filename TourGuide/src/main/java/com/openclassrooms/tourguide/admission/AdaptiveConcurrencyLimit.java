@@ -0,0 +1,98 @@
+package com.openclassrooms.tourguide.admission;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit learnt from observed latency, in the style of a gradient
+ * limiter: a long-term average latency stands for the latency without queueing,
+ * and while recent requests take longer than {@code tolerance} times that, the
+ * limit shrinks in proportion; otherwise it grows by about its square root, as
+ * long as at least half of it is in use. Low-priority requests are the expensive
+ * ones, so each priority class is compared with its own long-term latency, and a
+ * change in the mix of requests does not read as queueing. Samples are applied by
+ * one thread at a time; those arriving meanwhile are dropped rather than waited
+ * for. Low-priority requests may only use part of the limit, so they are shed first.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final double LONG_WINDOW_SAMPLES = 600;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double lowPriorityShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicBoolean sampling = new AtomicBoolean();
+    private volatile double limit;
+    // Per priority class, normal first; only read and written by the thread holding sampling
+    private final double[] longLatencyNanos = { -1, -1 };
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double tolerance, double lowPriorityShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.lowPriorityShare = lowPriorityShare;
+    }
+
+    /**
+     * @return true if the request may proceed, in which case {@link #release} must follow
+     */
+    public boolean tryAcquire(boolean lowPriority) {
+        int allowed = (int) Math.max(1, lowPriority ? limit * lowPriorityShare : limit);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param lowPriority the priority the request was acquired with
+     * @param latencyNanos time the request took, or a negative value to leave the limit untouched
+     */
+    public void release(boolean lowPriority, long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos >= 0 && sampling.compareAndSet(false, true)) {
+            try {
+                onSample(lowPriority ? 1 : 0, latencyNanos, inFlightBefore);
+            } finally {
+                sampling.set(false);
+            }
+        }
+    }
+
+    private void onSample(int priorityClass, long latencyNanos, int inFlightBefore) {
+        double longLatency = longLatencyNanos[priorityClass];
+        if (longLatency < 0) {
+            longLatencyNanos[priorityClass] = latencyNanos;
+            return;
+        }
+        longLatency += (latencyNanos - longLatency) / LONG_WINDOW_SAMPLES;
+        // Once latency has recovered, forget a past slowdown faster than the long window would
+        if (longLatency / Math.max(1, latencyNanos) > 2) {
+            longLatency *= 0.95;
+        }
+        longLatencyNanos[priorityClass] = longLatency;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / Math.max(1, latencyNanos)));
+        double current = limit;
+        // Low latency at low concurrency says nothing about a higher limit
+        double growth = inFlightBefore >= current / 2 ? Math.sqrt(current) : 0;
+        double target = current * gradient + growth;
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public int getLimit() { return (int) limit; }
+    public int getInFlight() { return inFlight.get(); }
+    public long getRejected() { return rejected.sum(); }
+}
@@ -0,0 +1,74 @@
+package com.openclassrooms.tourguide.admission;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds REST requests beyond an {@link AdaptiveConcurrencyLimit} with a fast 503,
+ * before they queue up behind slow external calls. Expensive endpoints only get
+ * part of the limit, so they are turned away first and cheap reads keep being
+ * served as load grows. Actuator, health probe and event stream requests are not limited.
+ */
+@Component
+@Order(0)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimit limit;
+    private final Set<String> expensivePaths;
+
+    public AdmissionControlFilter(@Value("${tourguide.admission.initial-limit:100}") int initialLimit,
+                                  @Value("${tourguide.admission.min-limit:20}") int minLimit,
+                                  @Value("${tourguide.admission.max-limit:200}") int maxLimit,
+                                  @Value("${tourguide.admission.latency-tolerance:2.0}") double tolerance,
+                                  @Value("${tourguide.admission.expensive-share:0.5}") double expensiveShare,
+                                  @Value("${tourguide.admission.expensive-paths:/getTripDeals,/getNearbyAttractions}") String expensivePaths) {
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, expensiveShare);
+        this.expensivePaths = Arrays.stream(expensivePaths.split(","))
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/actuator") || path.equals("/livez") || path.equals("/readyz")
+                || path.startsWith("/streamUserEvents");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean expensive = expensivePaths.contains(request.getRequestURI());
+        if (!limit.tryAcquire(expensive)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server overloaded, retry later");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = !request.isAsyncStarted();
+        } finally {
+            // Streamed and failed responses say nothing about queueing, so they do not move the limit
+            limit.release(expensive, completed ? System.nanoTime() - start : -1);
+        }
+    }
+
+    public AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,155 @@
+package com.openclassrooms.tourguide.cluster;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks which of the configured TourGuide nodes are alive and which node owns
+ * each user. Users are partitioned by name, so any node can route a request
+ * without knowing the user. Peers are probed through their liveness probe;
+ * the ring is rebuilt whenever a peer stops answering or comes back, which
+ * rebalances the partitions and notifies the rebalance listeners. Without any
+ * configured node the instance runs alone and owns every user.
+ */
+@Component
+public class ClusterMembership {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembership.class);
+    private static final int MISSED_HEARTBEATS_BEFORE_LEAVE = 3;
+
+    private final String self;
+    private final List<String> peers;
+    private final int virtualNodes;
+    private final Map<String, Integer> missedHeartbeats = new ConcurrentHashMap<>();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    private final ScheduledExecutorService heartbeat;
+    private final List<Runnable> rebalanceListeners = new CopyOnWriteArrayList<>();
+    private volatile ConsistentHashRing ring;
+
+    public ClusterMembership(@Value("${tourguide.cluster.self:}") String self,
+                             @Value("${tourguide.cluster.nodes:}") String nodes,
+                             @Value("${tourguide.cluster.virtual-nodes:128}") int virtualNodes,
+                             @Value("${tourguide.cluster.heartbeat-ms:2000}") long heartbeatMillis) {
+        this.self = self.isBlank() ? "local" : self;
+        this.virtualNodes = virtualNodes;
+        this.peers = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty() && !node.equals(this.self))
+                .collect(Collectors.toList());
+        this.ring = new ConsistentHashRing(List.of(this.self), virtualNodes);
+
+        if (peers.isEmpty()) {
+            heartbeat = null;
+        } else {
+            // Peers join the ring once they answer their first heartbeat
+            peers.forEach(peer -> missedHeartbeats.put(peer, MISSED_HEARTBEATS_BEFORE_LEAVE));
+            heartbeat = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                    .namingPattern("cluster-heartbeat")
+                    .daemon(true)
+                    .build());
+            heartbeat.scheduleWithFixedDelay(this::probePeers, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public Set<String> getLiveNodes() {
+        return ring.getNodes();
+    }
+
+    public String ownerOf(String userName) {
+        return ring.ownerOf(partitionKey(userName));
+    }
+
+    public boolean isLocal(String userName) {
+        return self.equals(ownerOf(userName));
+    }
+
+    /**
+     * Runs the listener after every change of the live nodes, on the heartbeat thread.
+     */
+    public void addRebalanceListener(Runnable listener) {
+        rebalanceListeners.add(listener);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    void probePeers() {
+        boolean changed = false;
+        for (String peer : peers) {
+            boolean wasLive = missedHeartbeats.get(peer) < MISSED_HEARTBEATS_BEFORE_LEAVE;
+            int missed = isAlive(peer) ? 0 : Math.min(missedHeartbeats.get(peer) + 1, MISSED_HEARTBEATS_BEFORE_LEAVE);
+            missedHeartbeats.put(peer, missed);
+            boolean live = missed < MISSED_HEARTBEATS_BEFORE_LEAVE;
+            if (live != wasLive) {
+                logger.info("Node " + peer + (live ? " joined" : " left") + " the cluster");
+                changed = true;
+            }
+        }
+        if (changed) {
+            List<String> liveNodes = peers.stream()
+                    .filter(peer -> missedHeartbeats.get(peer) < MISSED_HEARTBEATS_BEFORE_LEAVE)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            liveNodes.add(self);
+            ring = new ConsistentHashRing(liveNodes, virtualNodes);
+            logger.info("Rebalanced partitions over " + liveNodes.size() + " nodes");
+            for (Runnable listener : rebalanceListeners) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    logger.warn("Rebalance listener failed", e);
+                }
+            }
+        }
+    }
+
+    private static UUID partitionKey(String userName) {
+        return UUID.nameUUIDFromBytes(userName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean isAlive(String peer) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(peer + "/livez"))
+                    .timeout(Duration.ofSeconds(1))
+                    .GET()
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.openclassrooms.tourguide.cluster;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Forwards requests about a user to the node owning that user's partition and
+ * streams the owner's response back. The owner is found from the user name
+ * alone, so a node needs no copy of the users it does not own. Requests already
+ * forwarded by a peer are always served locally so that two nodes with diverging
+ * rings cannot bounce a request between them. While the owner is unreachable the
+ * request is answered with a 503, as this node does not hold the user.
+ */
+@Component
+public class PartitionRoutingFilter extends OncePerRequestFilter {
+    static final String FORWARDED_HEADER = "X-TourGuide-Forwarded-By";
+    private static final Logger logger = LoggerFactory.getLogger(PartitionRoutingFilter.class);
+
+    private final ClusterMembership clusterMembership;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public PartitionRoutingFilter(ClusterMembership clusterMembership) {
+        this.clusterMembership = clusterMembership;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || request.getParameter("userName") == null
+                || request.getHeader(FORWARDED_HEADER) != null
+                || clusterMembership.getLiveNodes().size() < 2;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String owner = clusterMembership.ownerOf(request.getParameter("userName"));
+        if (owner.equals(clusterMembership.getSelf())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String target = owner + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        HttpRequest.Builder forward = HttpRequest.newBuilder(URI.create(target))
+                .header(FORWARDED_HEADER, clusterMembership.getSelf())
+                .GET();
+        for (String header : new String[] { HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH }) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                forward.header(header, value);
+            }
+        }
+
+        HttpResponse<InputStream> proxied;
+        try {
+            proxied = httpClient.send(forward.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (IOException e) {
+            logger.warn("Owner " + owner + " unreachable, rejecting " + request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Owner of the user unreachable, retry later");
+            return;
+        }
+
+        response.setStatus(proxied.statusCode());
+        for (String header : new String[] { HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.VARY }) {
+            proxied.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+        }
+        try (InputStream in = proxied.body()) {
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                // Flushing each chunk keeps streamed responses flowing through the proxy
+                out.flush();
+            }
+        }
+    }
+}
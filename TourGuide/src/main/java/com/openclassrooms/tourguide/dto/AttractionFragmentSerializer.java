@@ -0,0 +1,89 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import gpsUtil.location.Attraction;
+
+/**
+ * Writes an attraction as a JSON fragment encoded once to UTF-8 and then copied
+ * as raw bytes into every response. Binary formats (Smile, CBOR) cannot embed
+ * JSON text, so they get the same fields written the regular way.
+ */
+public class AttractionFragmentSerializer extends StdSerializer<Attraction> {
+    // The catalog only holds a few dozen attractions; the cap guards against unexpected ids
+    private static final int MAX_CACHED_FRAGMENTS = 10_000;
+    private static final Map<UUID, SerializableString> fragments = new ConcurrentHashMap<>();
+
+    public AttractionFragmentSerializer() {
+        super(Attraction.class);
+    }
+
+    @Override
+    public void serialize(Attraction attraction, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            writeFields(attraction, gen);
+        } else {
+            gen.writeRawValue(fragment(attraction));
+        }
+    }
+
+    private static SerializableString fragment(Attraction attraction) {
+        SerializableString fragment = fragments.get(attraction.attractionId);
+        if (fragment == null) {
+            SerializedString encoded = new SerializedString(encode(attraction));
+            // Pre-compute the UTF-8 bytes so responses only copy them
+            encoded.asUnquotedUTF8();
+            fragment = encoded;
+            if (fragments.size() < MAX_CACHED_FRAGMENTS) {
+                fragments.putIfAbsent(attraction.attractionId, encoded);
+            }
+        }
+        return fragment;
+    }
+
+    private static String encode(Attraction attraction) {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"attractionId\":\"").append(attraction.attractionId)
+                .append("\",\"attractionName\":");
+        appendString(json, attraction.attractionName);
+        json.append(",\"city\":");
+        appendString(json, attraction.city);
+        json.append(",\"state\":");
+        appendString(json, attraction.state);
+        json.append(",\"latitude\":").append(attraction.latitude)
+                .append(",\"longitude\":").append(attraction.longitude)
+                .append('}');
+        return json.toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        json.append(JsonStringEncoder.getInstance().quoteAsString(value));
+        json.append('"');
+    }
+
+    private static void writeFields(Attraction attraction, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("attractionId", attraction.attractionId.toString());
+        gen.writeStringField("attractionName", attraction.attractionName);
+        gen.writeStringField("city", attraction.city);
+        gen.writeStringField("state", attraction.state);
+        gen.writeNumberField("latitude", attraction.latitude);
+        gen.writeNumberField("longitude", attraction.longitude);
+        gen.writeEndObject();
+    }
+}
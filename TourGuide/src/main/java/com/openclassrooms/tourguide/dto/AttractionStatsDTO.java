@@ -0,0 +1,22 @@
+package com.openclassrooms.tourguide.dto;
+
+import gpsUtil.location.Attraction;
+
+public class AttractionStatsDTO {
+    private final String attractionName;
+    private final double latitude;
+    private final double longitude;
+    private final long rewardedUsers;
+
+    public AttractionStatsDTO(Attraction attraction, long rewardedUsers) {
+        this.attractionName = attraction.attractionName;
+        this.latitude = attraction.latitude;
+        this.longitude = attraction.longitude;
+        this.rewardedUsers = rewardedUsers;
+    }
+
+    public String getAttractionName() { return attractionName; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public long getRewardedUsers() { return rewardedUsers; }
+}
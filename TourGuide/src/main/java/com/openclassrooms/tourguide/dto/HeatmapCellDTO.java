@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.dto;
+
+public class HeatmapCellDTO {
+    private final double latitude;
+    private final double longitude;
+    private final double sizeDegrees;
+    private final long visits;
+
+    public HeatmapCellDTO(double latitude, double longitude, double sizeDegrees, long visits) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.sizeDegrees = sizeDegrees;
+        this.visits = visits;
+    }
+
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public double getSizeDegrees() { return sizeDegrees; }
+    public long getVisits() { return visits; }
+}
@@ -0,0 +1,17 @@
+package com.openclassrooms.tourguide.dto;
+
+public class LeaderboardEntryDTO {
+    private final long rank;
+    private final String userName;
+    private final int rewardPoints;
+
+    public LeaderboardEntryDTO(long rank, String userName, int rewardPoints) {
+        this.rank = rank;
+        this.userName = userName;
+        this.rewardPoints = rewardPoints;
+    }
+
+    public long getRank() { return rank; }
+    public String getUserName() { return userName; }
+    public int getRewardPoints() { return rewardPoints; }
+}
@@ -0,0 +1,70 @@
+package com.openclassrooms.tourguide.dto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserSnapshot;
+
+/**
+ * Writes a page of a user's location history as JSON, fetching and flushing it
+ * in chunks so that a large page is never held in memory as a whole.
+ */
+public class LocationHistoryBody implements StreamingResponseBody {
+    private static final int CHUNK_SIZE = 512;
+
+    private final JsonFactory jsonFactory;
+    private final User user;
+    private final long fromMillis;
+    private final long toMillis;
+    private final int offset;
+    private final int limit;
+
+    public LocationHistoryBody(JsonFactory jsonFactory, User user, long fromMillis, long toMillis, int offset, int limit) {
+        this.jsonFactory = jsonFactory;
+        this.user = user;
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.offset = Math.max(0, offset);
+        this.limit = Math.max(0, limit);
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        // Every chunk is cut from the same snapshot, so the total and the pages agree even while tracking goes on
+        UserSnapshot snapshot = user.getSnapshot();
+        try (JsonGenerator json = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("userName", user.getUserName());
+            json.writeNumberField("total", snapshot.countVisitedLocationsBetween(fromMillis, toMillis));
+            json.writeNumberField("offset", offset);
+            json.writeArrayFieldStart("locations");
+            int written = 0;
+            while (written < limit) {
+                List<VisitedLocation> chunk = snapshot.getVisitedLocationsBetween(fromMillis, toMillis,
+                        offset + written, Math.min(CHUNK_SIZE, limit - written));
+                for (VisitedLocation visitedLocation : chunk) {
+                    json.writeStartObject();
+                    json.writeNumberField("latitude", visitedLocation.location.latitude);
+                    json.writeNumberField("longitude", visitedLocation.location.longitude);
+                    json.writeNumberField("timeVisited", visitedLocation.timeVisited.getTime());
+                    json.writeEndObject();
+                }
+                written += chunk.size();
+                json.flush();
+                if (chunk.size() < CHUNK_SIZE) {
+                    break;
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+}
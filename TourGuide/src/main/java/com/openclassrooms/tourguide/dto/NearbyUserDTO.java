@@ -0,0 +1,20 @@
+package com.openclassrooms.tourguide.dto;
+
+public class NearbyUserDTO {
+    private final String userName;
+    private final double latitude;
+    private final double longitude;
+    private final double distance;
+
+    public NearbyUserDTO(String userName, double latitude, double longitude, double distance) {
+        this.userName = userName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distance = distance;
+    }
+
+    public String getUserName() { return userName; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public double getDistance() { return distance; }
+}
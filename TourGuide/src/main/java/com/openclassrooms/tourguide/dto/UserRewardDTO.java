@@ -0,0 +1,33 @@
+package com.openclassrooms.tourguide.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import gpsUtil.location.Attraction;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Compact view of a {@link UserReward}: the visit is flattened to its coordinates
+ * and epoch timestamp, and the attraction is written from a pre-encoded fragment.
+ */
+public class UserRewardDTO {
+    @JsonSerialize(using = AttractionFragmentSerializer.class)
+    private final Attraction attraction;
+    private final double latitude;
+    private final double longitude;
+    private final long timeVisited;
+    private final int rewardPoints;
+
+    public UserRewardDTO(UserReward userReward) {
+        this.attraction = userReward.attraction;
+        this.latitude = userReward.visitedLocation.location.latitude;
+        this.longitude = userReward.visitedLocation.location.longitude;
+        this.timeVisited = userReward.visitedLocation.timeVisited.getTime();
+        this.rewardPoints = userReward.getRewardPoints();
+    }
+
+    public Attraction getAttraction() { return attraction; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public long getTimeVisited() { return timeVisited; }
+    public int getRewardPoints() { return rewardPoints; }
+}
@@ -0,0 +1,109 @@
+package com.openclassrooms.tourguide.leaderboard;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.dto.LeaderboardEntryDTO;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.service.UserActivityListener;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+import com.openclassrooms.tourguide.user.UserSnapshot;
+
+/**
+ * Users ranked by cumulative reward points, updated as each reward is added
+ * instead of being recomputed from every user on each query. Top-N reads walk
+ * a concurrent skip list and ranks come from {@link ScoreCounts}, so both stay
+ * logarithmic in the number of users. Updates of a given user are serialized
+ * through its entry in the standings map, and the user's rewards are read under
+ * that entry, so concurrent updates of one user never leave an older score in
+ * place; different users update concurrently. Ties share the same rank.
+ */
+@Component
+public class RewardLeaderboard implements UserActivityListener {
+    private static final Comparator<Standing> BY_POINTS_DESCENDING = Comparator
+            .comparingInt((Standing s) -> s.points).reversed()
+            .thenComparing(s -> s.userId);
+
+    private final ConcurrentMap<UUID, Standing> standings = new ConcurrentHashMap<>();
+    private final NavigableSet<Standing> ranking = new ConcurrentSkipListSet<>(BY_POINTS_DESCENDING);
+    private final ScoreCounts scoreCounts;
+
+    public RewardLeaderboard(TourGuideService tourGuideService,
+                             @Value("${tourguide.leaderboard.initial-score-capacity:32768}") int initialScoreCapacity) {
+        this.scoreCounts = new ScoreCounts(initialScoreCapacity);
+        tourGuideService.addActivityListener(this);
+    }
+
+    @Override
+    public void onRewardAdded(User user, UserReward userReward) {
+        update(user);
+    }
+
+    /**
+     * Brings the user's standing in line with their current rewards.
+     */
+    public void update(User user) {
+        standings.compute(user.getUserId(), (id, previous) -> {
+            UserSnapshot snapshot = user.getSnapshot();
+            if (previous != null && previous.version >= snapshot.getVersion()) {
+                return previous;
+            }
+            int points = snapshot.getUserRewards().stream().mapToInt(UserReward::getRewardPoints).sum();
+            if (previous != null && previous.points == points) {
+                return new Standing(id, previous.userName, points, snapshot.getVersion());
+            }
+            if (previous != null) {
+                ranking.remove(previous);
+                scoreCounts.add(previous.points, -1);
+            }
+            if (points <= 0) {
+                return null;
+            }
+            Standing next = new Standing(id, user.getUserName(), points, snapshot.getVersion());
+            ranking.add(next);
+            scoreCounts.add(points, 1);
+            return next;
+        });
+    }
+
+    public List<LeaderboardEntryDTO> getTop(int limit) {
+        return ranking.stream()
+                .limit(limit)
+                .map(s -> new LeaderboardEntryDTO(rankOf(s.points), s.userName, s.points))
+                .collect(Collectors.toList());
+    }
+
+    public LeaderboardEntryDTO getStanding(User user) {
+        Standing standing = standings.get(user.getUserId());
+        int points = standing == null ? 0 : standing.points;
+        return new LeaderboardEntryDTO(rankOf(points), user.getUserName(), points);
+    }
+
+    private long rankOf(int points) {
+        return scoreCounts.countAbove(points) + 1;
+    }
+
+    private static final class Standing {
+        private final UUID userId;
+        private final String userName;
+        private final int points;
+        private final long version;
+
+        Standing(UUID userId, String userName, int points, long version) {
+            this.userId = userId;
+            this.userName = userName;
+            this.points = points;
+            this.version = version;
+        }
+    }
+}
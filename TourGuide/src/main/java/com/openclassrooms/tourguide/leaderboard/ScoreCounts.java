@@ -0,0 +1,83 @@
+package com.openclassrooms.tourguide.leaderboard;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Number of users per score, kept in a Fenwick tree so that "how many users
+ * have more points than this" is answered in logarithmic time. Updates only
+ * share a read lock; the write lock is taken to double the capacity when a
+ * score beyond it shows up.
+ */
+class ScoreCounts {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile AtomicLongArray tree;
+
+    ScoreCounts(int initialCapacity) {
+        tree = new AtomicLongArray(Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1);
+    }
+
+    void add(int score, long delta) {
+        if (score <= 0) {
+            return;
+        }
+        while (true) {
+            lock.readLock().lock();
+            try {
+                AtomicLongArray current = tree;
+                if (score < current.length()) {
+                    for (int i = score; i < current.length(); i += i & -i) {
+                        current.addAndGet(i, delta);
+                    }
+                    return;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            grow(score);
+        }
+    }
+
+    long countAbove(int score) {
+        lock.readLock().lock();
+        try {
+            AtomicLongArray current = tree;
+            return prefix(current, current.length() - 1) - prefix(current, Math.max(0, score));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void grow(int score) {
+        lock.writeLock().lock();
+        try {
+            AtomicLongArray current = tree;
+            int length = current.length();
+            if (score < length) {
+                return;
+            }
+            while (score >= length) {
+                // Node n of a power-of-two sized tree covers every score below n; the new ones above it are empty
+                AtomicLongArray grown = new AtomicLongArray(length << 1);
+                for (int i = 1; i < length; i++) {
+                    grown.set(i, current.get(i));
+                }
+                grown.set(length, prefix(current, length - 1));
+                current = grown;
+                length = grown.length();
+            }
+            tree = current;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long prefix(AtomicLongArray tree, int score) {
+        long sum = 0;
+        for (int i = Math.min(score, tree.length() - 1); i > 0; i -= i & -i) {
+            sum += tree.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,224 @@
+package com.openclassrooms.tourguide.location;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Latest coordinates and timestamp of every user, kept off-heap in fixed-size
+ * slots of direct {@link ByteBuffer}s so that a large population does not
+ * retain millions of small location objects for the garbage collector to trace.
+ * Each user gets a dense slot number on first write, found through an off-heap
+ * open-addressing index, so the store holds no per-user object on the heap and
+ * a lookup allocates nothing. Slots are allocated in segments as the population
+ * grows. A per-slot sequence number lets readers detect and retry a read that
+ * overlapped a write, without any lock.
+ */
+public class LatestLocationStore {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int SEQUENCE = 0;
+    private static final int LATITUDE = 8;
+    private static final int LONGITUDE = 16;
+    private static final int TIME_VISITED = 24;
+    private static final int VERSION = 32;
+    static final int SLOT_BYTES = 40;
+
+    private static final int SLOTS_PER_SEGMENT = 1 << 16;
+    private static final int MAX_SEGMENTS = 1 << 14;
+
+    // Index entries: most and least significant bits of the user id, then slot + 1 (0 while free)
+    private static final int ENTRY_BYTES = 24;
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicReferenceArray<ByteBuffer> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private volatile ByteBuffer index = allocate(INITIAL_INDEX_CAPACITY * ENTRY_BYTES);
+
+    /**
+     * Records the user's latest location along with the version of the user it
+     * was taken from, which readers use to tell whether the slot is current.
+     */
+    public void update(UUID userId, VisitedLocation visitedLocation, long version) {
+        int slot = slotOf(userId);
+        if (slot < 0) {
+            slot = register(userId);
+        }
+        ByteBuffer segment = segment(slot);
+        int base = offset(slot);
+
+        long sequence;
+        do {
+            sequence = (long) LONGS.getVolatile(segment, base + SEQUENCE);
+        } while ((sequence & 1) != 0 || !LONGS.compareAndSet(segment, base + SEQUENCE, sequence, sequence + 1));
+
+        LONGS.set(segment, base + LATITUDE, Double.doubleToRawLongBits(visitedLocation.location.latitude));
+        LONGS.set(segment, base + LONGITUDE, Double.doubleToRawLongBits(visitedLocation.location.longitude));
+        LONGS.set(segment, base + TIME_VISITED, visitedLocation.timeVisited.getTime());
+        LONGS.set(segment, base + VERSION, version);
+        LONGS.setRelease(segment, base + SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Copies the user's latest latitude and longitude into the given array without
+     * allocating, so that hot read paths never materialize a location object.
+     *
+     * @param coordinates receives the latitude at index 0 and the longitude at index 1
+     * @return false, leaving the array untouched, if no location was recorded for this version of the user
+     */
+    public boolean readCoordinates(UUID userId, long version, double[] coordinates) {
+        int slot = slotOf(userId);
+        if (slot < 0) {
+            return false;
+        }
+        ByteBuffer segment = segments.get(slot / SLOTS_PER_SEGMENT);
+        if (segment == null) {
+            return false;
+        }
+        int base = offset(slot);
+        while (true) {
+            long before = (long) LONGS.getAcquire(segment, base + SEQUENCE);
+            if (before == 0) {
+                return false;
+            }
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long latitude = (long) LONGS.get(segment, base + LATITUDE);
+            long longitude = (long) LONGS.get(segment, base + LONGITUDE);
+            long recordedVersion = (long) LONGS.get(segment, base + VERSION);
+            VarHandle.acquireFence();
+            if ((long) LONGS.get(segment, base + SEQUENCE) != before) {
+                continue;
+            }
+            if (recordedVersion != version) {
+                return false;
+            }
+            coordinates[0] = Double.longBitsToDouble(latitude);
+            coordinates[1] = Double.longBitsToDouble(longitude);
+            return true;
+        }
+    }
+
+    public int size() {
+        return nextSlot.get();
+    }
+
+    /**
+     * @return the direct memory reserved for the slots allocated so far and their index
+     */
+    public long getOffHeapBytes() {
+        long bytes = index.capacity();
+        for (int i = 0; i < MAX_SEGMENTS && segments.get(i) != null; i++) {
+            bytes += segments.get(i).capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Lock-free probe of the index. An entry becomes visible only once its slot is
+     * published, and a table is never changed after being replaced by a larger one.
+     */
+    private int slotOf(UUID userId) {
+        ByteBuffer table = index;
+        long most = userId.getMostSignificantBits();
+        long least = userId.getLeastSignificantBits();
+        int mask = table.capacity() / ENTRY_BYTES - 1;
+        for (int i = hash(most, least) & mask; ; i = (i + 1) & mask) {
+            int entry = i * ENTRY_BYTES;
+            long slot = (long) LONGS.getAcquire(table, entry + 16);
+            if (slot == 0) {
+                return -1;
+            }
+            if ((long) LONGS.get(table, entry) == most && (long) LONGS.get(table, entry + 8) == least) {
+                return (int) (slot - 1);
+            }
+        }
+    }
+
+    /**
+     * Users are only registered once, so inserts simply take a lock; readers never do.
+     */
+    private synchronized int register(UUID userId) {
+        int existing = slotOf(userId);
+        if (existing >= 0) {
+            return existing;
+        }
+        int slot = nextSlot.get();
+        ByteBuffer table = index;
+        if ((slot + 1) * 2L > table.capacity() / ENTRY_BYTES) {
+            table = grow(table);
+        }
+        insert(table, userId.getMostSignificantBits(), userId.getLeastSignificantBits(), slot);
+        index = table;
+        nextSlot.incrementAndGet();
+        return slot;
+    }
+
+    private static ByteBuffer grow(ByteBuffer table) {
+        int entries = table.capacity() / ENTRY_BYTES;
+        if (entries > Integer.MAX_VALUE / ENTRY_BYTES / 2) {
+            throw new IllegalStateException("Latest location store is full");
+        }
+        ByteBuffer larger = allocate(entries * 2 * ENTRY_BYTES);
+        for (int i = 0; i < entries; i++) {
+            int entry = i * ENTRY_BYTES;
+            long slot = (long) LONGS.get(table, entry + 16);
+            if (slot != 0) {
+                insert(larger, (long) LONGS.get(table, entry), (long) LONGS.get(table, entry + 8), (int) (slot - 1));
+            }
+        }
+        return larger;
+    }
+
+    private static void insert(ByteBuffer table, long most, long least, int slot) {
+        int mask = table.capacity() / ENTRY_BYTES - 1;
+        int i = hash(most, least) & mask;
+        while ((long) LONGS.get(table, i * ENTRY_BYTES + 16) != 0) {
+            i = (i + 1) & mask;
+        }
+        int entry = i * ENTRY_BYTES;
+        LONGS.set(table, entry, most);
+        LONGS.set(table, entry + 8, least);
+        LONGS.setRelease(table, entry + 16, slot + 1L);
+    }
+
+    private static int hash(long most, long least) {
+        // Finalizer of MurmurHash3, so that neighbouring ids spread over the table
+        long h = most ^ Long.rotateLeft(least, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private ByteBuffer segment(int slot) {
+        int index = slot / SLOTS_PER_SEGMENT;
+        if (index >= MAX_SEGMENTS) {
+            throw new IllegalStateException("Latest location store is full");
+        }
+        ByteBuffer segment = segments.get(index);
+        if (segment == null) {
+            segments.compareAndSet(index, null, allocate(SLOTS_PER_SEGMENT * SLOT_BYTES));
+            segment = segments.get(index);
+        }
+        return segment;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static int offset(int slot) {
+        return (slot % SLOTS_PER_SEGMENT) * SLOT_BYTES;
+    }
+}
@@ -0,0 +1,39 @@
+package com.openclassrooms.tourguide.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to gpsUtil, RewardCentral or TripPricer; the event duration is the call latency.
+ */
+@Name("com.openclassrooms.tourguide.ExternalCall")
+@Label("External Call")
+@Category("TourGuide")
+@Description("Call to an external library through its resilient executor")
+@StackTrace(false)
+public class ExternalCallEvent extends Event {
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String TIMEOUT = "timeout";
+    public static final String REJECTED = "rejected";
+
+    @Label("Dependency")
+    private String dependency;
+
+    @Label("Outcome")
+    private String outcome = FAILURE;
+
+    @Label("Hedged")
+    private boolean hedged;
+
+    public ExternalCallEvent(String dependency) {
+        this.dependency = dependency;
+    }
+
+    public void setOutcome(String outcome) { this.outcome = outcome; }
+    public void setHedged(boolean hedged) { this.hedged = hedged; }
+}
@@ -0,0 +1,38 @@
+package com.openclassrooms.tourguide.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One call to RewardsService.calculateRewards. Emitted once per user and tracker
+ * cycle, so by default only the calls slower than the threshold are recorded.
+ */
+@Name("com.openclassrooms.tourguide.RewardCalculation")
+@Label("Reward Calculation")
+@Category("TourGuide")
+@Description("Rewards computed for one user")
+@StackTrace(false)
+@Threshold("1 ms")
+public class RewardCalculationEvent extends Event {
+    @Label("User Name")
+    private String userName;
+
+    @Label("Visited Locations")
+    private int visitedLocations;
+
+    @Label("Attractions")
+    private int attractions;
+
+    @Label("Rewards Added")
+    private int rewardsAdded;
+
+    public void setUserName(String userName) { this.userName = userName; }
+    public void setVisitedLocations(int visitedLocations) { this.visitedLocations = visitedLocations; }
+    public void setAttractions(int attractions) { this.attractions = attractions; }
+    public void setRewardsAdded(int rewardsAdded) { this.rewardsAdded = rewardsAdded; }
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.tourguide.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One pass of the tracker over the users owned by this node.
+ */
+@Name("com.openclassrooms.tourguide.TrackerCycle")
+@Label("Tracker Cycle")
+@Category("TourGuide")
+@Description("One pass of the tracker over its users")
+@StackTrace(false)
+public class TrackerCycleEvent extends Event {
+    @Label("Tracked Users")
+    private int trackedUsers;
+
+    @Label("Failed Users")
+    private int failedUsers;
+
+    @Label("Skipped Users")
+    private int skippedUsers;
+
+    public void setTrackedUsers(int trackedUsers) { this.trackedUsers = trackedUsers; }
+    public void setFailedUsers(int failedUsers) { this.failedUsers = failedUsers; }
+    public void setSkippedUsers(int skippedUsers) { this.skippedUsers = skippedUsers; }
+}
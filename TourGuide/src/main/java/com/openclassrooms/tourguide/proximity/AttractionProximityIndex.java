@@ -0,0 +1,169 @@
+package com.openclassrooms.tourguide.proximity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.dto.NearbyUserDTO;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.service.UserActivityListener;
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Reverse index from geographic cells to the users whose latest location falls
+ * inside them, moved along as locations are tracked. A radius query only visits
+ * the cells covering the circle, so its cost depends on how many users are
+ * around, not on how many users there are overall.
+ */
+@Component
+public class AttractionProximityIndex implements UserActivityListener {
+    private static final double MILES_PER_DEGREE = 69.0;
+
+    private final RewardsService rewardsService;
+    private final double cellSizeDegrees;
+    private final int columns;
+    private final ConcurrentMap<UUID, Position> positions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+    public AttractionProximityIndex(TourGuideService tourGuideService,
+                                    RewardsService rewardsService,
+                                    @Value("${tourguide.proximity.cell-size-degrees:0.5}") double cellSizeDegrees) {
+        this.rewardsService = rewardsService;
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.columns = (int) Math.ceil(360 / cellSizeDegrees);
+        tourGuideService.addActivityListener(this);
+        for (User user : tourGuideService.getAllUsers()) {
+            if (!user.getVisitedLocations().isEmpty()) {
+                onLocationTracked(user, tourGuideService.getUserLocation(user));
+            }
+        }
+    }
+
+    @Override
+    public void onLocationTracked(User user, VisitedLocation visitedLocation) {
+        Location location = visitedLocation.location;
+        long cell = cellOf(row(location.latitude), column(location.longitude));
+        positions.compute(user.getUserId(), (id, previous) -> {
+            if (previous == null || previous.cell != cell) {
+                if (previous != null) {
+                    leave(previous.cell, id);
+                }
+                cells.compute(cell, (key, users) -> {
+                    Set<UUID> members = users != null ? users : ConcurrentHashMap.newKeySet();
+                    members.add(id);
+                    return members;
+                });
+            }
+            return new Position(user.getUserName(), location.latitude, location.longitude, cell);
+        });
+    }
+
+    /**
+     * Forgets users this node no longer owns, so that queries never return them.
+     */
+    @Override
+    public void onUserDropped(User user) {
+        positions.computeIfPresent(user.getUserId(), (id, previous) -> {
+            leave(previous.cell, id);
+            return null;
+        });
+    }
+
+    /**
+     * Users whose latest location is within the given distance of the point, closest first.
+     */
+    public List<NearbyUserDTO> getUsersWithin(Location center, double miles) {
+        double latitudeDelta = miles / MILES_PER_DEGREE;
+        double longitudeDelta = miles / (MILES_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(center.latitude))));
+        int firstRow = row(center.latitude - latitudeDelta);
+        int lastRow = row(center.latitude + latitudeDelta);
+        int columnSpan = (int) Math.min(columns - 1L, (long) Math.ceil(2 * longitudeDelta / cellSizeDegrees) + 1);
+        int firstColumn = column(center.longitude - longitudeDelta);
+
+        List<NearbyUserDTO> nearby = new ArrayList<>();
+        long coveredCells = (long) (lastRow - firstRow + 1) * (columnSpan + 1);
+        if (coveredCells > cells.size()) {
+            // The circle covers more cells than are occupied: walk the occupied ones instead,
+            // skipping those outside the covered rows and columns before visiting their users
+            for (Map.Entry<Long, Set<UUID>> entry : cells.entrySet()) {
+                long cell = entry.getKey();
+                int row = (int) (cell >> 32);
+                int column = (int) cell;
+                if (row >= firstRow && row <= lastRow && Math.floorMod(column - firstColumn, columns) <= columnSpan) {
+                    collect(entry.getValue(), center, miles, nearby);
+                }
+            }
+        } else {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int offset = 0; offset <= columnSpan; offset++) {
+                    Set<UUID> users = cells.get(cellOf(row, (firstColumn + offset) % columns));
+                    if (users != null) {
+                        collect(users, center, miles, nearby);
+                    }
+                }
+            }
+        }
+        nearby.sort(Comparator.comparingDouble(NearbyUserDTO::getDistance));
+        return nearby;
+    }
+
+    private void leave(long cell, UUID userId) {
+        cells.computeIfPresent(cell, (key, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    private void collect(Set<UUID> users, Location center, double miles, List<NearbyUserDTO> nearby) {
+        for (UUID userId : users) {
+            Position position = positions.get(userId);
+            if (position == null) {
+                continue;
+            }
+            double distance = rewardsService.getDistance(center.latitude, center.longitude,
+                    position.latitude, position.longitude);
+            // Identical points give NaN, hence the negated comparison
+            if (!(distance > miles)) {
+                nearby.add(new NearbyUserDTO(position.userName, position.latitude, position.longitude,
+                        Double.isNaN(distance) ? 0 : distance));
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / cellSizeDegrees);
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellSizeDegrees), columns);
+    }
+
+    private static long cellOf(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static final class Position {
+        private final String userName;
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        Position(String userName, double latitude, double longitude, long cell) {
+            this.userName = userName;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the most recent call latencies in a ring buffer and periodically
+ * derives the p95 and mean from them, so readers never sort on the hot path.
+ */
+public class LatencyRecorder {
+    private static final int WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final int MIN_SAMPLES = 20;
+
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicLong count = new AtomicLong();
+    private volatile long p95Nanos = -1;
+    private volatile long meanNanos = -1;
+
+    public void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % WINDOW), nanos);
+        if ((n + 1) % RECOMPUTE_EVERY == 0 || n + 1 == MIN_SAMPLES) {
+            recompute();
+        }
+    }
+
+    /**
+     * @return the p95 latency of the recent window, or -1 while there are too few samples
+     */
+    public long getP95Nanos() {
+        return p95Nanos;
+    }
+
+    /**
+     * @return the mean latency of the recent window, or -1 while there are too few samples
+     */
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    private void recompute() {
+        int size = (int) Math.min(count.get(), WINDOW);
+        if (size < MIN_SAMPLES) {
+            return;
+        }
+        long[] copy = new long[size];
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+            sum += copy[i];
+        }
+        Arrays.sort(copy);
+        p95Nanos = copy[(int) Math.ceil(size * 0.95) - 1];
+        meanNanos = sum / size;
+    }
+}
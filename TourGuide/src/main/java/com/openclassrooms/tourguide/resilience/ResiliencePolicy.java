@@ -0,0 +1,32 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.time.Duration;
+
+/**
+ * Per-dependency limits applied by a {@link ResilientExecutor}.
+ */
+public class ResiliencePolicy {
+    private final Duration timeout;
+    private final int maxConcurrentCalls;
+    private final boolean hedgingEnabled;
+    private final int failureThreshold;
+    private final Duration breakerWindow;
+
+    public ResiliencePolicy(Duration timeout,
+                            int maxConcurrentCalls,
+                            boolean hedgingEnabled,
+                            int failureThreshold,
+                            Duration breakerWindow) {
+        this.timeout = timeout;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.hedgingEnabled = hedgingEnabled;
+        this.failureThreshold = failureThreshold;
+        this.breakerWindow = breakerWindow;
+    }
+
+    public Duration getTimeout() { return timeout; }
+    public int getMaxConcurrentCalls() { return maxConcurrentCalls; }
+    public boolean isHedgingEnabled() { return hedgingEnabled; }
+    public int getFailureThreshold() { return failureThreshold; }
+    public Duration getBreakerWindow() { return breakerWindow; }
+}
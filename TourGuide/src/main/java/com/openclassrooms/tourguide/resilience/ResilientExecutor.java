@@ -0,0 +1,156 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.concurrent.EventCountCircuitBreaker;
+
+import com.openclassrooms.tourguide.monitoring.ExternalCallEvent;
+
+/**
+ * Runs calls to one external dependency with a timeout, a bulkhead limiting the
+ * number of calls in flight, a hedged second attempt once a call outlives the
+ * recent p95 latency, and a circuit breaker that fails fast after repeated failures.
+ */
+public class ResilientExecutor {
+    private final String name;
+    private final ResiliencePolicy policy;
+    private final Semaphore bulkhead;
+    private final EventCountCircuitBreaker circuitBreaker;
+    private final LatencyRecorder latencies = new LatencyRecorder();
+    private final ExecutorService executor;
+
+    private final LongAdder hedgedCalls = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public ResilientExecutor(String name, ResiliencePolicy policy) {
+        this.name = name;
+        this.policy = policy;
+        this.bulkhead = new Semaphore(policy.getMaxConcurrentCalls());
+        long window = policy.getBreakerWindow().toMillis();
+        this.circuitBreaker = new EventCountCircuitBreaker(
+                policy.getFailureThreshold(), window, TimeUnit.MILLISECONDS,
+                1, window, TimeUnit.MILLISECONDS);
+        this.executor = Executors.newCachedThreadPool(new BasicThreadFactory.Builder()
+                .namingPattern(name + "-call-%d")
+                .daemon(true)
+                .build());
+    }
+
+    public <T> T call(Callable<T> task) {
+        ExternalCallEvent event = new ExternalCallEvent(name);
+        event.begin();
+        try {
+            T result = attempt(task, event);
+            event.setOutcome(ExternalCallEvent.SUCCESS);
+            return result;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private <T> T attempt(Callable<T> task, ExternalCallEvent event) {
+        if (!circuitBreaker.checkState()) {
+            rejections.increment();
+            event.setOutcome(ExternalCallEvent.REJECTED);
+            throw new ExternalServiceException(name + " circuit breaker is open");
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + policy.getTimeout().toNanos();
+        int permits = 0;
+        List<Future<T>> attempts = new ArrayList<>(2);
+        try {
+            if (!bulkhead.tryAcquire(deadline - start, TimeUnit.NANOSECONDS)) {
+                rejections.increment();
+                event.setOutcome(ExternalCallEvent.REJECTED);
+                throw new ExternalServiceException(name + " bulkhead is full");
+            }
+            permits++;
+
+            CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+            attempts.add(completion.submit(task));
+            int pending = 1;
+
+            long p95 = latencies.getP95Nanos();
+            long hedgeAt = policy.isHedgingEnabled() && p95 > 0 ? start + p95 : Long.MAX_VALUE;
+            boolean hedged = false;
+            Throwable lastFailure = null;
+
+            while (pending > 0) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    break;
+                }
+                long waitUntil = !hedged && hedgeAt < deadline ? hedgeAt : deadline;
+                Future<T> done = completion.poll(Math.max(0, waitUntil - now), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    if (!hedged && System.nanoTime() >= hedgeAt) {
+                        hedged = true;
+                        if (bulkhead.tryAcquire()) {
+                            permits++;
+                            hedgedCalls.increment();
+                            event.setHedged(true);
+                            attempts.add(completion.submit(task));
+                            pending++;
+                        }
+                    }
+                    continue;
+                }
+                pending--;
+                try {
+                    T result = done.get();
+                    latencies.record(System.nanoTime() - start);
+                    return result;
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause();
+                }
+            }
+
+            circuitBreaker.incrementAndCheckState();
+            // Slow failures and timeouts count too, or p95 would stay low exactly while the dependency degrades
+            latencies.record(System.nanoTime() - start);
+            if (pending == 0 && lastFailure != null) {
+                failures.increment();
+                throw new ExternalServiceException(name + " call failed", lastFailure);
+            }
+            timeouts.increment();
+            event.setOutcome(ExternalCallEvent.TIMEOUT);
+            throw new ExternalServiceException(name + " timed out after "
+                    + policy.getTimeout().toMillis() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalServiceException(name + " call interrupted", e);
+        } finally {
+            attempts.forEach(f -> f.cancel(true));
+            bulkhead.release(permits);
+        }
+    }
+
+    public String getName() { return name; }
+    public ResiliencePolicy getPolicy() { return policy; }
+    public LatencyRecorder getLatencies() { return latencies; }
+    public boolean isCircuitOpen() { return circuitBreaker.isOpen(); }
+    public int getInFlightCalls() { return policy.getMaxConcurrentCalls() - bulkhead.availablePermits(); }
+    public long getHedgedCalls() { return hedgedCalls.sum(); }
+    public long getTimeouts() { return timeouts.sum(); }
+    public long getFailures() { return failures.sum(); }
+    public long getRejections() { return rejections.sum(); }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,35 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * {@link GpsUtil} whose calls go through a {@link ResilientExecutor}.
+ */
+public class ResilientGpsUtil extends GpsUtil {
+    private final GpsUtil delegate;
+    private final ResilientExecutor executor;
+
+    public ResilientGpsUtil(GpsUtil delegate, ResilientExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public VisitedLocation getUserLocation(UUID userId) {
+        return executor.call(() -> delegate.getUserLocation(userId));
+    }
+
+    @Override
+    public List<Attraction> getAttractions() {
+        return executor.call(delegate::getAttractions);
+    }
+
+    public ResilientExecutor getExecutor() {
+        return executor;
+    }
+}
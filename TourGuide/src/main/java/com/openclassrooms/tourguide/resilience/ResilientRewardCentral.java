@@ -0,0 +1,27 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.UUID;
+
+import rewardCentral.RewardCentral;
+
+/**
+ * {@link RewardCentral} whose calls go through a {@link ResilientExecutor}.
+ */
+public class ResilientRewardCentral extends RewardCentral {
+    private final RewardCentral delegate;
+    private final ResilientExecutor executor;
+
+    public ResilientRewardCentral(RewardCentral delegate, ResilientExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+        return executor.call(() -> delegate.getAttractionRewardPoints(attractionId, userId));
+    }
+
+    public ResilientExecutor getExecutor() {
+        return executor;
+    }
+}
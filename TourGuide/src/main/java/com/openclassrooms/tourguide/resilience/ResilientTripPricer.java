@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.resilience;
+
+import java.util.List;
+import java.util.UUID;
+
+import tripPricer.Provider;
+import tripPricer.TripPricer;
+
+/**
+ * {@link TripPricer} whose calls go through a {@link ResilientExecutor}.
+ */
+public class ResilientTripPricer extends TripPricer {
+    private final TripPricer delegate;
+    private final ResilientExecutor executor;
+
+    public ResilientTripPricer(TripPricer delegate, ResilientExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public List<Provider> getPrice(String apiKey, UUID attractionId, int adults, int children,
+                                   int nightsStay, int rewardsPoints) {
+        return executor.call(() -> delegate.getPrice(apiKey, attractionId, adults, children,
+                nightsStay, rewardsPoints));
+    }
+
+    @Override
+    public String getProviderName(String apiKey, int adults) {
+        return executor.call(() -> delegate.getProviderName(apiKey, adults));
+    }
+
+    public ResilientExecutor getExecutor() {
+        return executor;
+    }
+}
@@ -0,0 +1,148 @@
+package com.openclassrooms.tourguide.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.openclassrooms.tourguide.user.User;
+
+/**
+ * Recomputation of the rewards of many users, split into batches on a fork/join
+ * pool. Progress can be read while it runs and it can be cancelled, in which case
+ * the batches not yet started are skipped.
+ */
+public class RewardRecomputation {
+    public enum State { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private final List<User> users;
+    private final int batchSize;
+    private final Consumer<User> calculation;
+    private final LongAdder processed = new LongAdder();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final Instant startTime = Instant.now();
+    private final long start = System.nanoTime();
+    private volatile long end;
+    private volatile boolean cancelled;
+
+    RewardRecomputation(List<User> users, int batchSize, Consumer<User> calculation) {
+        this.users = users;
+        this.batchSize = Math.max(1, batchSize);
+        this.calculation = calculation;
+    }
+
+    void start(ForkJoinPool pool) {
+        try {
+            pool.execute(new Batch(0, users.size()));
+        } catch (RejectedExecutionException e) {
+            finish(e);
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Waits for the end of the job and rethrows its failure, if any.
+     */
+    public void await() {
+        completion.join();
+    }
+
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            completion.get(timeout, unit);
+        } catch (ExecutionException | CancellationException e) {
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+        return true;
+    }
+
+    public State getState() {
+        if (!completion.isDone()) {
+            return State.RUNNING;
+        }
+        if (completion.isCompletedExceptionally()) {
+            return cancelled ? State.CANCELLED : State.FAILED;
+        }
+        return State.COMPLETED;
+    }
+
+    public Instant getStartTime() { return startTime; }
+    public int getTotalUsers() { return users.size(); }
+    public int getProcessedUsers() { return processed.intValue(); }
+
+    public long getElapsedMillis() {
+        long until = completion.isDone() ? end : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(until - start);
+    }
+
+    public double getUsersPerSecond() {
+        return processed.sum() * 1000.0 / Math.max(1, getElapsedMillis());
+    }
+
+    private void finish(Throwable error) {
+        end = System.nanoTime();
+        if (error != null) {
+            completion.completeExceptionally(error);
+        } else if (cancelled) {
+            completion.completeExceptionally(new CancellationException("Reward recomputation cancelled"));
+        } else {
+            completion.complete(null);
+        }
+    }
+
+    private class Batch extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        Batch(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            boolean root = from == 0 && to == users.size();
+            try {
+                split();
+                if (root) {
+                    finish(null);
+                }
+            } catch (Throwable e) {
+                // Errors as well, otherwise the job would never complete and await() would hang
+                if (root) {
+                    finish(e);
+                } else {
+                    throw e;
+                }
+            }
+        }
+
+        private void split() {
+            if (cancelled) {
+                return;
+            }
+            if (to - from <= batchSize) {
+                for (int i = from; i < to && !cancelled; i++) {
+                    calculation.accept(users.get(i));
+                    processed.increment();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(from, middle), new Batch(middle, to));
+        }
+    }
+}
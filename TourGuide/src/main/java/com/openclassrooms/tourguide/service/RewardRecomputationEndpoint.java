@@ -0,0 +1,66 @@
+package com.openclassrooms.tourguide.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint ({@code /actuator/rewards}) running a bulk reward recomputation
+ * over the users of this node: a POST starts it, optionally with a new proximity
+ * buffer, a GET reports its progress and throughput and a DELETE cancels it.
+ * Only one recomputation runs at a time. Like the other actuator endpoints it is
+ * only served on the management port, bound to the loopback interface.
+ */
+@Component
+@Endpoint(id = "rewards")
+public class RewardRecomputationEndpoint {
+    private final RewardsService rewardsService;
+    private final TourGuideService tourGuideService;
+    private RewardRecomputation current;
+
+    public RewardRecomputationEndpoint(RewardsService rewardsService, TourGuideService tourGuideService) {
+        this.rewardsService = rewardsService;
+        this.tourGuideService = tourGuideService;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (current == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", current.getState());
+        status.put("startTime", current.getStartTime());
+        status.put("processedUsers", current.getProcessedUsers());
+        status.put("totalUsers", current.getTotalUsers());
+        status.put("elapsedMillis", current.getElapsedMillis());
+        status.put("usersPerSecond", Math.round(current.getUsersPerSecond()));
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Integer proximityBuffer) {
+        if (current == null || current.getState() != RewardRecomputation.State.RUNNING) {
+            if (proximityBuffer != null) {
+                rewardsService.setProximityBuffer(proximityBuffer);
+            }
+            current = rewardsService.startRecomputation(tourGuideService.getTrackedUsers());
+        }
+        return status();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> cancel() {
+        if (current != null) {
+            current.cancel();
+        }
+        return status();
+    }
+}
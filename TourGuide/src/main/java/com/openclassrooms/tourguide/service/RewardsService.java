@@ -2,8 +2,13 @@ package com.openclassrooms.tourguide.service;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import gpsUtil.GpsUtil;
@@ -11,19 +16,25 @@ import gpsUtil.location.Attraction;
 import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.monitoring.RewardCalculationEvent;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
+import com.openclassrooms.tourguide.user.UserSnapshot;
 
 @Service
 public class RewardsService {
+    private static final Logger logger = LoggerFactory.getLogger(RewardsService.class);
     private static final double STATUTE_MILES_PER_NAUTICAL_MILE = 1.15077945;
+    private static final int MAX_WARM_UP_THREADS = 16;
+    private static final long WARM_UP_RETRY_DELAY_SECONDS = 30;
+    private static final int RECOMPUTATION_BATCH_SIZE = 256;
 
-    // cache global (userId, attractionId) -> points
-    private final ConcurrentMap<UUID, Integer> attractionRewardCache = new ConcurrentHashMap<>();
+    // cache global attractionId -> points, une seule requête en cours par attraction
+    private final ConcurrentMap<UUID, CompletableFuture<Integer>> attractionRewardCache = new ConcurrentHashMap<>();
 
     // buffer
     private final int defaultProximityBuffer = 10;
-    private int proximityBuffer = defaultProximityBuffer;
+    private volatile int proximityBuffer = defaultProximityBuffer;
     private int attractionProximityRange = 200;
 
     private final GpsUtil gpsUtil;
@@ -32,6 +43,14 @@ public class RewardsService {
     // Préchargez et conservez la liste des attractions une seule fois
     private final List<Attraction> allAttractions;
 
+    private final List<UserActivityListener> activityListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger failedWarmUpLoads = new AtomicInteger();
+    private final ExecutorService warmUpExecutor;
+    private final CompletableFuture<Void> warmUp;
+
+    private final ForkJoinPool recomputationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
     public RewardsService(GpsUtil gpsUtil, RewardCentral rewardCentral) {
         this.gpsUtil = gpsUtil;
         this.rewardsCentral = rewardCentral;
@@ -39,13 +58,104 @@ public class RewardsService {
         // Charge une fois la liste
         this.allAttractions = gpsUtil.getAttractions();
 
-        // Pré‐chargement des points pour chaque attraction (une seule fois)
-        allAttractions.forEach(a ->
-                attractionRewardCache.put(
-                        a.attractionId,
-                        rewardsCentral.getAttractionRewardPoints(a.attractionId, UUID.randomUUID())
-                )
-        );
+        // Pré‐chargement des points en tâche de fond ; en attendant, ils sont chargés à la demande
+        this.warmUpExecutor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(allAttractions.size(), MAX_WARM_UP_THREADS)),
+                new BasicThreadFactory.Builder()
+                        .namingPattern("rewards-warm-up-%d")
+                        .daemon(true)
+                        .build());
+        this.warmUp = warmUpRewardPoints();
+    }
+
+    /**
+     * Loads the points of every attraction not loaded yet concurrently, without blocking
+     * the constructor. Lookups made meanwhile share the same pending loads. Attractions
+     * that failed are loaded again in a later pass until all of them are.
+     */
+    private CompletableFuture<Void> warmUpRewardPoints() {
+        CompletableFuture<?>[] loads = allAttractions.stream()
+                .filter(a -> !isLoaded(a))
+                .map(a -> loadRewardPoints(a.attractionId, UUID.randomUUID(), warmUpExecutor)
+                        .exceptionally(e -> {
+                            failedWarmUpLoads.incrementAndGet();
+                            logger.warn("Could not warm up reward points of " + a.attractionName + ": " + e.getMessage());
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(loads).thenRun(() -> {
+            int warmedUp = getWarmedUpAttractions();
+            logger.debug("Reward points warmed up for " + warmedUp + "/" + allAttractions.size() + " attractions");
+            if (warmedUp == allAttractions.size()) {
+                warmUpExecutor.shutdown();
+            } else if (!warmUpExecutor.isShutdown()) {
+                CompletableFuture.delayedExecutor(WARM_UP_RETRY_DELAY_SECONDS, TimeUnit.SECONDS, warmUpExecutor)
+                        .execute(this::warmUpRewardPoints);
+            }
+        });
+    }
+
+    /**
+     * Returns the points of the attraction, starting their load on the given executor unless
+     * it is already loaded or in progress. A failed load is forgotten so that it can be retried.
+     */
+    private CompletableFuture<Integer> loadRewardPoints(UUID attractionId, UUID userId, Executor executor) {
+        CompletableFuture<Integer> load = new CompletableFuture<>();
+        CompletableFuture<Integer> existing = attractionRewardCache.putIfAbsent(attractionId, load);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    load.complete(rewardsCentral.getAttractionRewardPoints(attractionId, userId));
+                } catch (Throwable e) {
+                    forget(attractionId, load, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            forget(attractionId, load, e);
+        }
+        return load;
+    }
+
+    private void forget(UUID attractionId, CompletableFuture<Integer> load, Throwable error) {
+        attractionRewardCache.remove(attractionId, load);
+        load.completeExceptionally(error);
+    }
+
+    private boolean isLoaded(Attraction attraction) {
+        CompletableFuture<Integer> points = attractionRewardCache.get(attraction.attractionId);
+        return points != null && points.isDone() && !points.isCompletedExceptionally();
+    }
+
+    /**
+     * @return true once the first warm-up pass is over and the points of every attraction are loaded
+     */
+    public boolean isWarmedUp() {
+        return warmUp.isDone() && getWarmedUpAttractions() == allAttractions.size();
+    }
+
+    public int getWarmedUpAttractions() {
+        return (int) allAttractions.stream().filter(this::isLoaded).count();
+    }
+
+    public int getFailedWarmUpLoads() {
+        return failedWarmUpLoads.get();
+    }
+
+    /**
+     * @return true if the first warm-up pass finished within the timeout, whether or not every load succeeded
+     */
+    public boolean awaitWarmUp(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            warmUp.get(timeout, unit);
+            return true;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
     }
 
     public void setProximityBuffer(int proximityBuffer) {
@@ -56,12 +166,26 @@ public class RewardsService {
         this.proximityBuffer = defaultProximityBuffer;
     }
 
+    public List<Attraction> getAttractions() {
+        return allAttractions;
+    }
+
+    public void addActivityListener(UserActivityListener listener) {
+        activityListeners.add(listener);
+    }
+
     public void calculateRewards(User user) {
-        List<VisitedLocation> visited = user.getVisitedLocations();
+        // One snapshot gives a consistent view of locations and rewards without blocking the tracker
+        UserSnapshot snapshot = user.getSnapshot();
+        List<VisitedLocation> visited = snapshot.getVisitedLocations();
         if (visited.isEmpty()) return;
 
+        RewardCalculationEvent event = new RewardCalculationEvent();
+        event.begin();
+        int added = 0;
+
         // éviter de dupliquer les récompenses
-        Set<UUID> already = user.getUserRewards().stream()
+        Set<UUID> already = snapshot.getUserRewards().stream()
                 .map(r -> r.attraction.attractionId)
                 .collect(Collectors.toSet());
 
@@ -74,12 +198,59 @@ public class RewardsService {
 
                 // un seul calcul de distance
                 if (getDistance(a, loc) <= proximityBuffer) {
-                    int pts = attractionRewardCache.get(a.attractionId);
-                    user.addUserReward(new UserReward(vl, a, pts));
+                    int pts = getRewardPoints(a, user);
+                    UserReward reward = new UserReward(vl, a, pts);
+                    if (user.addUserReward(reward)) {
+                        added++;
+                        notifyRewardAdded(user, reward);
+                    }
                     already.add(a.attractionId);
                 }
             }
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setUserName(user.getUserName());
+            event.setVisitedLocations(visited.size());
+            event.setAttractions(allAttractions.size());
+            event.setRewardsAdded(added);
+            event.commit();
+        }
+    }
+
+    /**
+     * Recomputes the rewards of all the given users in parallel and returns once they are done.
+     */
+    public void calculateRewards(Collection<User> users) {
+        startRecomputation(users).await();
+    }
+
+    /**
+     * Starts recomputing the rewards of the given users in batches on a fork/join pool,
+     * for instance after the proximity rule changed.
+     */
+    public RewardRecomputation startRecomputation(Collection<User> users) {
+        RewardRecomputation recomputation = new RewardRecomputation(
+                new ArrayList<>(users), RECOMPUTATION_BATCH_SIZE, this::calculateRewards);
+        recomputation.start(recomputationPool);
+        return recomputation;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recomputationPool.shutdownNow();
+        warmUpExecutor.shutdownNow();
+    }
+
+    private void notifyRewardAdded(User user, UserReward reward) {
+        for (UserActivityListener listener : activityListeners) {
+            try {
+                listener.onRewardAdded(user, reward);
+            } catch (RuntimeException e) {
+                logger.warn("Activity listener failed on reward for " + user.getUserName(), e);
+            }
+        }
     }
 
     private boolean nearAttraction(VisitedLocation visitedLocation, Attraction attraction) {
@@ -90,18 +261,33 @@ public class RewardsService {
         return !(getDistance(attraction, location) > attractionProximityRange);
     }
 
+    /**
+     * Loads the points on the calling thread if nobody else is loading them, otherwise waits
+     * for that load only, so that a slow attraction never holds up lookups of the others.
+     */
     public int getRewardPoints(Attraction attraction, User user) {
-        return attractionRewardCache.computeIfAbsent(
-                attraction.attractionId,
-                id -> rewardsCentral.getAttractionRewardPoints(id, user.getUserId())
-        );
+        try {
+            return loadRewardPoints(attraction.attractionId, user.getUserId(), Runnable::run).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
     }
 
     public double getDistance(Location loc1, Location loc2) {
-        double lat1 = Math.toRadians(loc1.latitude);
-        double lon1 = Math.toRadians(loc1.longitude);
-        double lat2 = Math.toRadians(loc2.latitude);
-        double lon2 = Math.toRadians(loc2.longitude);
+        return getDistance(loc1.latitude, loc1.longitude, loc2.latitude, loc2.longitude);
+    }
+
+    public double getDistance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double lat1 = Math.toRadians(latitude1);
+        double lon1 = Math.toRadians(longitude1);
+        double lat2 = Math.toRadians(latitude2);
+        double lon2 = Math.toRadians(longitude2);
 
         double angle = Math.acos(Math.sin(lat1) * Math.sin(lat2)
                 + Math.cos(lat1) * Math.cos(lat2) * Math.cos(lon1 - lon2));
@@ -0,0 +1,29 @@
+package com.openclassrooms.tourguide.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the readiness probe out of service until the reward points of every
+ * attraction have been loaded in the background, including those whose load
+ * failed and is being retried.
+ */
+@Component
+public class RewardsWarmUpHealthIndicator implements HealthIndicator {
+    private final RewardsService rewardsService;
+
+    public RewardsWarmUpHealthIndicator(RewardsService rewardsService) {
+        this.rewardsService = rewardsService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = rewardsService.isWarmedUp() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("warmedUpAttractions", rewardsService.getWarmedUpAttractions())
+                .withDetail("attractions", rewardsService.getAttractions().size())
+                .withDetail("failedLoads", rewardsService.getFailedWarmUpLoads())
+                .build();
+    }
+}
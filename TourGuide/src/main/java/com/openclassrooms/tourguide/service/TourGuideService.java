@@ -1,22 +1,28 @@
 package com.openclassrooms.tourguide.service;
 
+import com.openclassrooms.tourguide.cluster.ClusterMembership;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.location.LatestLocationStore;
 import com.openclassrooms.tourguide.tracker.Tracker;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
+import com.openclassrooms.tourguide.user.UserSnapshot;
 
 import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import gpsUtil.GpsUtil;
@@ -33,15 +39,23 @@ public class TourGuideService {
     private static final Logger logger = LoggerFactory.getLogger(TourGuideService.class);
     private final GpsUtil gpsUtil;
     private final RewardsService rewardsService;
-    private final TripPricer tripPricer = new TripPricer();
+    private final TripPricer tripPricer;
     public final Tracker tracker;
-    private final ExecutorService rewardExecutor =
-            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
     boolean testMode = true;
+    private volatile ClusterMembership clusterMembership;
+    private final List<UserActivityListener> activityListeners = new CopyOnWriteArrayList<>();
+    private final LatestLocationStore latestLocations = new LatestLocationStore();
+    private volatile boolean latestLocationStoreEnabled = true;
 
     public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService) {
+        this(gpsUtil, rewardsService, new TripPricer());
+    }
+
+    @Autowired
+    public TourGuideService(GpsUtil gpsUtil, RewardsService rewardsService, TripPricer tripPricer) {
         this.gpsUtil = gpsUtil;
         this.rewardsService = rewardsService;
+        this.tripPricer = tripPricer;
 
         Locale.setDefault(Locale.US);
 
@@ -53,9 +67,9 @@ public class TourGuideService {
         }
         tracker = new Tracker(this);
 
-        if (testMode) {
-            tracker.stopTracking();
-        } else {
+        // In test mode the tracker stays paused; it can still be resumed through the tracker endpoint
+        if (!testMode) {
+            tracker.resume();
             addShutDownHook();
         }
     }
@@ -65,15 +79,59 @@ public class TourGuideService {
     }
 
     public VisitedLocation getUserLocation(User user) {
-        VisitedLocation visitedLocation = (user.getVisitedLocations().size() > 0) ? user.getLastVisitedLocation()
-                : trackUserLocation(user);
-        return visitedLocation;
+        UserSnapshot snapshot = user.getSnapshot();
+        if (snapshot.getVisitedLocations().isEmpty()) {
+            return trackUserLocation(user);
+        }
+        return snapshot.getLastVisitedLocation();
+    }
+
+    /**
+     * Reads the user's latest coordinates from the off-heap store without allocating,
+     * falling back to their history (and refreshing the store) when the user changed
+     * since they were stored.
+     *
+     * @param coordinates receives the latitude at index 0 and the longitude at index 1
+     */
+    public void readUserCoordinates(User user, double[] coordinates) {
+        UserSnapshot snapshot = user.getSnapshot();
+        if (latestLocationStoreEnabled
+                && latestLocations.readCoordinates(user.getUserId(), snapshot.getVersion(), coordinates)) {
+            return;
+        }
+        if (snapshot.getVisitedLocations().isEmpty()) {
+            trackUserLocation(user);
+            snapshot = user.getSnapshot();
+        }
+        VisitedLocation visitedLocation = snapshot.getLastVisitedLocation();
+        if (latestLocationStoreEnabled) {
+            latestLocations.update(user.getUserId(), visitedLocation, snapshot.getVersion());
+        }
+        coordinates[0] = visitedLocation.location.latitude;
+        coordinates[1] = visitedLocation.location.longitude;
+    }
+
+    /**
+     * Lets coordinate reads and tracking bypass the off-heap store, to compare both on the same run.
+     */
+    @Autowired
+    public void setLatestLocationStoreEnabled(
+            @Value("${tourguide.location.off-heap-store.enabled:true}") boolean latestLocationStoreEnabled) {
+        this.latestLocationStoreEnabled = latestLocationStoreEnabled;
+    }
+
+    public LatestLocationStore getLatestLocations() {
+        return latestLocations;
     }
 
     public double getDistance(Attraction attraction, Location location) {
         return rewardsService.getDistance(attraction, location);
     }
 
+    public double getDistance(Attraction attraction, double latitude, double longitude) {
+        return rewardsService.getDistance(attraction.latitude, attraction.longitude, latitude, longitude);
+    }
+
     public int getRewardPoints(Attraction attraction, User user) {
         return rewardsService.getRewardPoints(attraction, user);
     }
@@ -86,6 +144,58 @@ public class TourGuideService {
         return new ArrayList<>(internalUserMap.values());
     }
 
+    /**
+     * Users whose partition is owned by this node, i.e. the ones its tracker must follow.
+     */
+    public List<User> getTrackedUsers() {
+        return internalUserMap.values().stream()
+                .filter(user -> isOwned(user.getUserName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Registers a listener for new locations and, through the rewards service, new rewards.
+     */
+    public void addActivityListener(UserActivityListener listener) {
+        activityListeners.add(listener);
+        rewardsService.addActivityListener(listener);
+    }
+
+    /**
+     * From then on this node only holds the users of its own partitions, and picks
+     * up or drops users whenever the partitions are rebalanced.
+     */
+    @Autowired(required = false)
+    public void setClusterMembership(ClusterMembership clusterMembership) {
+        this.clusterMembership = clusterMembership;
+        clusterMembership.addRebalanceListener(this::rebalance);
+        rebalance();
+    }
+
+    private boolean isOwned(String userName) {
+        ClusterMembership membership = clusterMembership;
+        return membership == null || membership.isLocal(userName);
+    }
+
+    private synchronized void rebalance() {
+        int before = internalUserMap.size();
+        for (User user : internalUserMap.values()) {
+            if (!isOwned(user.getUserName()) && internalUserMap.remove(user.getUserName(), user)) {
+                for (UserActivityListener listener : activityListeners) {
+                    try {
+                        listener.onUserDropped(user);
+                    } catch (RuntimeException e) {
+                        logger.warn("Activity listener failed on dropping " + user.getUserName(), e);
+                    }
+                }
+            }
+        }
+        if (testMode) {
+            initializeInternalUsers();
+        }
+        logger.debug("Holding " + internalUserMap.size() + " users after rebalance, previously " + before);
+    }
+
     public void addUser(User user) {
         if (!internalUserMap.containsKey(user.getUserName())) {
             internalUserMap.put(user.getUserName(), user);
@@ -119,21 +229,35 @@ public class TourGuideService {
 
         // 2. On récupère ensuite la nouvelle position (mais on ne la traite pas ici)
         VisitedLocation visitedLocation = gpsUtil.getUserLocation(user.getUserId());
-        user.addToVisitedLocations(visitedLocation);
+        UserSnapshot snapshot = user.addToVisitedLocations(visitedLocation);
+        if (latestLocationStoreEnabled) {
+            latestLocations.update(user.getUserId(), snapshot.getLastVisitedLocation(), snapshot.getVersion());
+        }
+        for (UserActivityListener listener : activityListeners) {
+            try {
+                listener.onLocationTracked(user, visitedLocation);
+            } catch (RuntimeException e) {
+                logger.warn("Activity listener failed on location for " + user.getUserName(), e);
+            }
+        }
 
         return visitedLocation;
     }
 
     @PreDestroy
-    public void shutdownExecutors() {
-        rewardExecutor.shutdown();
+    public void shutdownTracker() {
+        tracker.stopTracking();
     }
 
 
     public List<Attraction> getNearByAttractions(VisitedLocation visitedLocation) {
+        return getNearByAttractions(visitedLocation.location.latitude, visitedLocation.location.longitude);
+    }
+
+    public List<Attraction> getNearByAttractions(double latitude, double longitude) {
         return gpsUtil.getAttractions().stream()
                 .sorted(Comparator.comparingDouble(a ->
-                        rewardsService.getDistance(a, visitedLocation.location)))
+                        rewardsService.getDistance(a.latitude, a.longitude, latitude, longitude)))
                 .limit(5)
                 .collect(Collectors.toList());
     }
@@ -154,19 +278,30 @@ public class TourGuideService {
     private static final String tripPricerApiKey = "test-server-api-key";
     // Database connection will be used for external users, but for testing purposes
     // internal users are provided and stored in memory
-    private final Map<String, User> internalUserMap = new HashMap<>();
+    private final Map<String, User> internalUserMap = new ConcurrentHashMap<>();
 
+    /**
+     * Creates the internal users owned by this node that it does not hold yet. They stand
+     * in for a shared database, so a node taking over a partition creates its users afresh.
+     */
     private void initializeInternalUsers() {
         IntStream.range(0, InternalTestHelper.getInternalUserNumber()).forEach(i -> {
             String userName = "internalUser" + i;
+            if (!isOwned(userName) || internalUserMap.containsKey(userName)) {
+                return;
+            }
             String phone = "000";
             String email = userName + "@tourGuide.com";
-            User user = new User(UUID.randomUUID(), userName, phone, email);
+            // Derived from the name so that the user keeps the same id on whichever node owns them
+            UUID userId = UUID.nameUUIDFromBytes(userName.getBytes(StandardCharsets.UTF_8));
+            User user = new User(userId, userName, phone, email);
             generateUserLocationHistory(user);
+            UserSnapshot snapshot = user.getSnapshot();
+            latestLocations.update(userId, snapshot.getLastVisitedLocation(), snapshot.getVersion());
 
             internalUserMap.put(userName, user);
         });
-        logger.debug("Created " + InternalTestHelper.getInternalUserNumber() + " internal test users.");
+        logger.debug("Holding " + internalUserMap.size() + " internal test users.");
     }
 
     private void generateUserLocationHistory(User user) {
@@ -0,0 +1,22 @@
+package com.openclassrooms.tourguide.service;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Notified from the tracking and reward paths each time a user gets a new
+ * location or a new reward, and when a rebalance moves a user to another node.
+ * Implementations run on tracker or heartbeat threads and must return quickly.
+ */
+public interface UserActivityListener {
+
+    default void onLocationTracked(User user, VisitedLocation visitedLocation) {
+    }
+
+    default void onRewardAdded(User user, UserReward userReward) {
+    }
+
+    default void onUserDropped(User user) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.openclassrooms.tourguide.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Log-normal call latency around a median, with occasional tail spikes.
+ */
+public class LatencyModel {
+    private final double medianMillis;
+    private final double sigma;
+    private final double spikeProbability;
+    private final long spikeMillis;
+    private final RandomGenerator random;
+
+    public LatencyModel(double medianMillis, double sigma, double spikeProbability, long spikeMillis) {
+        this(medianMillis, sigma, spikeProbability, spikeMillis, null);
+    }
+
+    /**
+     * @param random source of every sample, e.g. a seeded one for reproducible runs; null for {@link ThreadLocalRandom}
+     */
+    public LatencyModel(double medianMillis, double sigma, double spikeProbability, long spikeMillis,
+                        RandomGenerator random) {
+        this.medianMillis = medianMillis;
+        this.sigma = sigma;
+        this.spikeProbability = spikeProbability;
+        this.spikeMillis = spikeMillis;
+        this.random = random;
+    }
+
+    public static LatencyModel none() {
+        return new LatencyModel(0, 0, 0, 0);
+    }
+
+    public long sampleMillis() {
+        RandomGenerator random = this.random != null ? this.random : ThreadLocalRandom.current();
+        if (spikeProbability > 0 && random.nextDouble() < spikeProbability) {
+            return spikeMillis;
+        }
+        return Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /**
+     * Blocks the caller for one sampled latency, the way a remote call would.
+     */
+    public void pause() {
+        long millis = sampleMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.openclassrooms.tourguide.simulator;
+
+/**
+ * How simulated users move between two location requests.
+ */
+public enum MovementModel {
+    /**
+     * Each user takes a step of random direction and length from where they were.
+     */
+    RANDOM_WALK,
+    /**
+     * Each user heads for an attraction, wanders around it for a while, then picks another one.
+     */
+    ATTRACTION_CLUSTERS;
+
+    public static MovementModel fromProperty(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,141 @@
+package com.openclassrooms.tourguide.simulator;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * In-process {@link GpsUtil} whose users move continuously instead of teleporting,
+ * with a configurable latency. The attraction list is fixed at construction so
+ * that attraction ids stay stable across calls.
+ */
+public class SimulatedGpsUtil extends GpsUtil {
+    private static final double MILES_PER_DEGREE = 69.0;
+    private static final double MAX_LATITUDE = 85.05112878;
+    private static final double WANDER_MILES = 1.0;
+    // Offsets are cut at this many typical distances, so that a single step stays bounded
+    private static final double MAX_OFFSET_DEVIATIONS = 3.0;
+
+    private final List<Attraction> attractions;
+    private final MovementModel movementModel;
+    private final double stepMiles;
+    private final double switchProbability;
+    private final LatencyModel latency;
+    private final RandomGenerator random;
+    private final ConcurrentMap<UUID, Position> positions = new ConcurrentHashMap<>();
+
+    /**
+     * @param stepMiles typical distance travelled between two requests
+     * @param switchProbability chance, per request, that a user near an attraction leaves for another one
+     */
+    public SimulatedGpsUtil(List<Attraction> attractions, MovementModel movementModel,
+                            double stepMiles, double switchProbability, LatencyModel latency) {
+        this(attractions, movementModel, stepMiles, switchProbability, latency, null);
+    }
+
+    /**
+     * @param random source of every move, e.g. a seeded one for reproducible runs; null for {@link ThreadLocalRandom}
+     */
+    public SimulatedGpsUtil(List<Attraction> attractions, MovementModel movementModel,
+                            double stepMiles, double switchProbability, LatencyModel latency, RandomGenerator random) {
+        this.attractions = List.copyOf(attractions);
+        this.movementModel = movementModel;
+        this.stepMiles = stepMiles;
+        this.switchProbability = switchProbability;
+        this.latency = latency;
+        this.random = random;
+    }
+
+    @Override
+    public VisitedLocation getUserLocation(UUID userId) {
+        latency.pause();
+        Position position = positions.compute(userId, (id, previous) -> previous == null ? start() : move(previous));
+        return new VisitedLocation(userId, new Location(position.latitude, position.longitude), new Date());
+    }
+
+    @Override
+    public List<Attraction> getAttractions() {
+        latency.pause();
+        return attractions;
+    }
+
+    private Position start() {
+        Attraction target = randomAttraction();
+        double spread = movementModel == MovementModel.RANDOM_WALK ? 50 * stepMiles : stepMiles;
+        return offset(target.latitude, target.longitude, spread, target);
+    }
+
+    private Position move(Position from) {
+        if (movementModel == MovementModel.RANDOM_WALK) {
+            return offset(from.latitude, from.longitude, stepMiles, null);
+        }
+        RandomGenerator random = random();
+        Attraction target = from.target;
+        double distance = miles(from.latitude, from.longitude, target.latitude, target.longitude);
+        if (distance <= WANDER_MILES * 2) {
+            if (random.nextDouble() < switchProbability) {
+                // Sets off from here; the journey starts with the next request
+                return new Position(from.latitude, from.longitude, randomAttraction());
+            }
+            return offset(target.latitude, target.longitude, WANDER_MILES, target);
+        }
+        // Head for the target, a step at a time
+        double fraction = Math.min(1, Math.abs(stepMiles * (1 + 0.3 * random.nextGaussian())) / distance);
+        return offset(from.latitude + (target.latitude - from.latitude) * fraction,
+                from.longitude + (target.longitude - from.longitude) * fraction,
+                stepMiles * 0.1, target);
+    }
+
+    /**
+     * A point at a Gaussian distance of typically {@code miles} around the given coordinates,
+     * and at most {@link #MAX_OFFSET_DEVIATIONS} times that along each axis.
+     */
+    private Position offset(double latitude, double longitude, double miles, Attraction target) {
+        RandomGenerator random = random();
+        double north = deviation(random) * miles / MILES_PER_DEGREE;
+        double east = deviation(random) * miles
+                / (MILES_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        double newLatitude = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude + north));
+        double newLongitude = ((longitude + east + 180) % 360 + 360) % 360 - 180;
+        return new Position(newLatitude, newLongitude, target);
+    }
+
+    private static double deviation(RandomGenerator random) {
+        return Math.max(-MAX_OFFSET_DEVIATIONS, Math.min(MAX_OFFSET_DEVIATIONS, random.nextGaussian()));
+    }
+
+    private static double miles(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double north = (latitude2 - latitude1) * MILES_PER_DEGREE;
+        double east = (longitude2 - longitude1) * MILES_PER_DEGREE * Math.cos(Math.toRadians((latitude1 + latitude2) / 2));
+        return Math.sqrt(north * north + east * east);
+    }
+
+    private Attraction randomAttraction() {
+        return attractions.get(random().nextInt(attractions.size()));
+    }
+
+    private RandomGenerator random() {
+        return random != null ? random : ThreadLocalRandom.current();
+    }
+
+    private static final class Position {
+        private final double latitude;
+        private final double longitude;
+        private final Attraction target;
+
+        Position(double latitude, double longitude, Attraction target) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.target = target;
+        }
+    }
+}
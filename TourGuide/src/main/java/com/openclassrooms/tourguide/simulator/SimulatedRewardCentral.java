@@ -0,0 +1,23 @@
+package com.openclassrooms.tourguide.simulator;
+
+import java.util.UUID;
+
+import rewardCentral.RewardCentral;
+
+/**
+ * In-process {@link RewardCentral} with a configurable latency. Each attraction is
+ * worth a stable number of points between 1 and 1000.
+ */
+public class SimulatedRewardCentral extends RewardCentral {
+    private final LatencyModel latency;
+
+    public SimulatedRewardCentral(LatencyModel latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+        latency.pause();
+        return 1 + Math.floorMod(attractionId.hashCode(), 1000);
+    }
+}
@@ -0,0 +1,95 @@
+package com.openclassrooms.tourguide.stats;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.dto.AttractionStatsDTO;
+import com.openclassrooms.tourguide.dto.HeatmapCellDTO;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.service.UserActivityListener;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Live totals of rewards per attraction and of tracked locations per geographic
+ * cell. Tracker threads only increment {@link LongAdder}s, which stripe their
+ * updates across cells instead of contending on one value; the sums are only
+ * taken when the aggregates are read.
+ */
+@Component
+public class ActivityStatistics implements UserActivityListener {
+    private final Map<UUID, Attraction> attractions;
+    private final ConcurrentMap<UUID, LongAdder> rewardsByAttraction = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongAdder> visitsByCell = new ConcurrentHashMap<>();
+    private final double cellSizeDegrees;
+
+    public ActivityStatistics(TourGuideService tourGuideService,
+                              RewardsService rewardsService,
+                              @Value("${tourguide.stats.cell-size-degrees:1.0}") double cellSizeDegrees) {
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.attractions = rewardsService.getAttractions().stream()
+                .collect(Collectors.toMap(a -> a.attractionId, a -> a, (a, b) -> a));
+        // Created up front so the reward path never allocates a counter
+        attractions.keySet().forEach(id -> rewardsByAttraction.put(id, new LongAdder()));
+        tourGuideService.addActivityListener(this);
+    }
+
+    @Override
+    public void onLocationTracked(User user, VisitedLocation visitedLocation) {
+        counter(visitsByCell, cellOf(visitedLocation.location)).increment();
+    }
+
+    @Override
+    public void onRewardAdded(User user, UserReward userReward) {
+        counter(rewardsByAttraction, userReward.attraction.attractionId).increment();
+    }
+
+    /**
+     * Number of users rewarded at each attraction, most rewarded first.
+     */
+    public List<AttractionStatsDTO> getAttractionStats() {
+        return rewardsByAttraction.entrySet().stream()
+                .filter(e -> attractions.containsKey(e.getKey()))
+                .map(e -> new AttractionStatsDTO(attractions.get(e.getKey()), e.getValue().sum()))
+                .sorted(Comparator.comparingLong(AttractionStatsDTO::getRewardedUsers).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Number of tracked locations in each non-empty cell, identified by its south-west corner.
+     */
+    public List<HeatmapCellDTO> getHeatmap() {
+        return visitsByCell.entrySet().stream()
+                .map(e -> new HeatmapCellDTO(
+                        (int) (e.getKey() >> 32) * cellSizeDegrees,
+                        (int) (long) e.getKey() * cellSizeDegrees,
+                        cellSizeDegrees,
+                        e.getValue().sum()))
+                .sorted(Comparator.comparingLong(HeatmapCellDTO::getVisits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private long cellOf(Location location) {
+        int row = (int) Math.floor(location.latitude / cellSizeDegrees);
+        int column = (int) Math.floor(location.longitude / cellSizeDegrees);
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static <K> LongAdder counter(ConcurrentMap<K, LongAdder> counters, K key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
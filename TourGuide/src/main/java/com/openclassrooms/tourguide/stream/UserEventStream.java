@@ -0,0 +1,214 @@
+package com.openclassrooms.tourguide.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.dto.UserRewardDTO;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.service.UserActivityListener;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+/**
+ * Pushes new locations and rewards to the Server-Sent Events subscribers of each user.
+ * Tracker threads only enqueue into a bounded per-subscriber buffer; sender threads
+ * drain the buffers to the network, one event at a time per subscriber. A subscriber
+ * whose buffer overflows, or whose write takes longer than the send timeout, is too
+ * slow to keep up and is disconnected. Emitters are only ever completed from sender
+ * threads, since completing waits for a write in progress: a stalled client holds a
+ * sender thread until its socket gives up, but never the tracker or other subscribers.
+ */
+@Component
+public class UserEventStream implements UserActivityListener {
+    private static final Logger logger = LoggerFactory.getLogger(UserEventStream.class);
+
+    private final ConcurrentMap<UUID, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutMillis;
+    private final ExecutorService senders;
+
+    public UserEventStream(TourGuideService tourGuideService,
+                           @Value("${tourguide.stream.buffer-size:64}") int bufferSize,
+                           @Value("${tourguide.stream.timeout-ms:1800000}") long timeoutMillis,
+                           @Value("${tourguide.stream.send-timeout-ms:5000}") long sendTimeoutMillis) {
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        // Unbounded, as a thread stuck in a write can only be given up on, not reclaimed
+        this.senders = Executors.newCachedThreadPool(new BasicThreadFactory.Builder()
+                .namingPattern("user-event-sender-%d")
+                .daemon(true)
+                .build());
+        tourGuideService.addActivityListener(this);
+    }
+
+    public SseEmitter subscribe(User user) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(user.getUserId(), emitter);
+        // Added within the map operation, so that a concurrent close cannot drop the set meanwhile
+        subscriptions.compute(user.getUserId(), (id, set) -> {
+            Set<Subscription> userSubscriptions = set != null ? set : ConcurrentHashMap.newKeySet();
+            userSubscriptions.add(subscription);
+            return userSubscriptions;
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
+
+    public int getSubscriberCount(UUID userId) {
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+        return userSubscriptions == null ? 0 : userSubscriptions.size();
+    }
+
+    @Override
+    public void onLocationTracked(User user, VisitedLocation visitedLocation) {
+        publish(user.getUserId(), "location", visitedLocation);
+    }
+
+    @Override
+    public void onRewardAdded(User user, UserReward userReward) {
+        publish(user.getUserId(), "reward", new UserRewardDTO(userReward));
+    }
+
+    /**
+     * Creates the emitter of a new subscription; a subclass may substitute its own.
+     */
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.values().forEach(set -> set.forEach(Subscription::disconnect));
+        senders.shutdown();
+    }
+
+    private void publish(UUID userId, String name, Object payload) {
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : userSubscriptions) {
+            subscription.offer(SseEmitter.event().name(name).data(payload));
+        }
+    }
+
+    private class Subscription {
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscription(UUID userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                logger.debug("Dropping slow event subscriber of user " + userId);
+                disconnect();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sendNext();
+            }
+        }
+
+        /**
+         * Sends the next buffered event on a sender thread and chains the following one
+         * once it is written, giving up on the subscriber if the write does not finish in time.
+         */
+        private void sendNext() {
+            SseEmitter.SseEventBuilder event = closed.get() ? null : buffer.poll();
+            if (event == null) {
+                draining.set(false);
+                // An event offered while we were leaving still needs a sender
+                if (!closed.get() && !buffer.isEmpty()) {
+                    scheduleDrain();
+                }
+                return;
+            }
+            CompletableFuture<Void> write;
+            try {
+                write = CompletableFuture.runAsync(() -> send(event), senders);
+            } catch (RejectedExecutionException e) {
+                close();
+                return;
+            }
+            write.orTimeout(sendTimeoutMillis, TimeUnit.MILLISECONDS).whenComplete((result, error) -> {
+                if (error == null) {
+                    sendNext();
+                } else {
+                    if (error instanceof TimeoutException) {
+                        logger.debug("Dropping stalled event subscriber of user " + userId);
+                    }
+                    disconnect();
+                }
+            });
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Stops delivering to the subscriber right away and completes its emitter on a sender thread.
+         */
+        void disconnect() {
+            close();
+            try {
+                senders.execute(emitter::complete);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Event stream of user " + userId + " left open at shutdown");
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                buffer.clear();
+                subscriptions.computeIfPresent(userId, (id, set) -> {
+                    set.remove(this);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        }
+    }
+}
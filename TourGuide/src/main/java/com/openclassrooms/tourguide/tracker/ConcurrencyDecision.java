@@ -0,0 +1,38 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Instant;
+
+/**
+ * Worker pool size chosen by the {@link ConcurrencyTuner} after a cycle, with the figures it was derived from.
+ */
+public class ConcurrencyDecision {
+	private final Instant time;
+	private final int users;
+	private final long userLatencyMicros;
+	private final double usersPerSecond;
+	private final long deadlineSlackMillis;
+	private final int previousWorkers;
+	private final int workers;
+	private final String reason;
+
+	public ConcurrencyDecision(Instant time, int users, long userLatencyMicros, double usersPerSecond,
+			long deadlineSlackMillis, int previousWorkers, int workers, String reason) {
+		this.time = time;
+		this.users = users;
+		this.userLatencyMicros = userLatencyMicros;
+		this.usersPerSecond = usersPerSecond;
+		this.deadlineSlackMillis = deadlineSlackMillis;
+		this.previousWorkers = previousWorkers;
+		this.workers = workers;
+		this.reason = reason;
+	}
+
+	public Instant getTime() { return time; }
+	public int getUsers() { return users; }
+	public long getUserLatencyMicros() { return userLatencyMicros; }
+	public double getUsersPerSecond() { return usersPerSecond; }
+	public long getDeadlineSlackMillis() { return deadlineSlackMillis; }
+	public int getPreviousWorkers() { return previousWorkers; }
+	public int getWorkers() { return workers; }
+	public String getReason() { return reason; }
+}
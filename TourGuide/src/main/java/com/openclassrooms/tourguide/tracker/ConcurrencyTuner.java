@@ -0,0 +1,131 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import com.openclassrooms.tourguide.resilience.LatencyRecorder;
+
+/**
+ * Sizes the tracker's worker pool from Little's law: to track N users within a
+ * budget B, users must be completed at a rate of N / B, and with each user taking
+ * W the pool needs N / B * W workers busy at once. The budget is the interval
+ * minus a reserve of slack, and W is the larger of the last cycle's per-user time
+ * and the recent gpsUtil latency, so a slowdown seen by other callers is acted on
+ * before a cycle misses its deadline. A cycle that ate into the reserved slack
+ * grows the pool at least in proportion to its overrun of the budget, whatever
+ * the latencies say. The pool grows at once but shrinks by at most a quarter per
+ * cycle, and never beyond what the gpsUtil bulkhead admits.
+ */
+public class ConcurrencyTuner {
+	private static final double MAX_SHRINK = 0.25;
+
+	private final int minWorkers;
+	private final int maxWorkers;
+	private final double targetUtilization;
+	private final LatencyRecorder gpsUtilLatencies;
+	private final LatencyRecorder rewardCentralLatencies;
+	private volatile ConcurrencyDecision lastDecision;
+
+	/**
+	 * @param targetUtilization share of the interval a cycle should take, the rest being kept as slack
+	 * @param gpsUtilLatencies recent gpsUtil call latencies, or null if they are not recorded
+	 * @param rewardCentralLatencies recent RewardCentral call latencies, or null; only reported
+	 */
+	public ConcurrencyTuner(int minWorkers, int maxWorkers, double targetUtilization,
+			LatencyRecorder gpsUtilLatencies, LatencyRecorder rewardCentralLatencies) {
+		if (minWorkers < 1 || maxWorkers < minWorkers) {
+			throw new IllegalArgumentException("Invalid worker bounds " + minWorkers + ".." + maxWorkers);
+		}
+		if (targetUtilization <= 0 || targetUtilization > 1) {
+			throw new IllegalArgumentException("Target utilization must be in (0, 1]");
+		}
+		this.minWorkers = minWorkers;
+		this.maxWorkers = maxWorkers;
+		this.targetUtilization = targetUtilization;
+		this.gpsUtilLatencies = gpsUtilLatencies;
+		this.rewardCentralLatencies = rewardCentralLatencies;
+	}
+
+	/**
+	 * @return the number of workers for the next cycle
+	 */
+	public int decide(TrackerCycleStats cycle, Duration interval) {
+		int current = cycle.getWorkers();
+		int users = cycle.getTrackedUsers() + cycle.getFailedUsers() + cycle.getSkippedUsers();
+		int completed = users - cycle.getSkippedUsers();
+		long slackMillis = interval.toMillis() - cycle.getDurationMillis();
+		long latencyNanos = Math.max(TimeUnit.MICROSECONDS.toNanos(cycle.getMeanUserLatencyMicros()),
+				gpsUtilLatencies != null ? gpsUtilLatencies.getMeanNanos() : -1);
+		if (users == 0 || latencyNanos <= 0) {
+			return record(cycle, users, latencyNanos, 0, slackMillis, current, "no-data");
+		}
+
+		double budgetSeconds = interval.toNanos() * targetUtilization / 1e9;
+		double usersPerSecond = users / budgetSeconds;
+		int needed = (int) Math.ceil(usersPerSecond * latencyNanos / 1e9);
+		String reason = "littles-law";
+		if (cycle.getSkippedUsers() > 0) {
+			// The deadline was missed: at least scale the pool by the share of users left behind
+			int catchUp = (int) Math.ceil((double) current * users / Math.max(1, completed));
+			if (catchUp > needed) {
+				needed = catchUp;
+				reason = "missed-deadline";
+			}
+		} else {
+			long budgetMillis = (long) (interval.toMillis() * targetUtilization);
+			if (slackMillis < interval.toMillis() - budgetMillis) {
+				// Done in time but over budget: scale the pool so that the cycle fits the budget again
+				int toBudget = (int) Math.ceil((double) current * cycle.getDurationMillis() / Math.max(1, budgetMillis));
+				if (toBudget > needed) {
+					needed = toBudget;
+					reason = "low-slack";
+				}
+			}
+		}
+		int floor = (int) Math.floor(current * (1 - MAX_SHRINK));
+		if (needed < floor) {
+			needed = floor;
+			reason = "shrinking";
+		}
+		int workers = Math.max(minWorkers, Math.min(maxWorkers, needed));
+		if (workers != needed) {
+			reason = workers == maxWorkers ? "capped" : "floor";
+		}
+		return record(cycle, users, latencyNanos, usersPerSecond, slackMillis, workers, reason);
+	}
+
+	public ConcurrencyDecision getLastDecision() {
+		return lastDecision;
+	}
+
+	/**
+	 * @return mean recent gpsUtil latency in microseconds, or -1 when unknown
+	 */
+	public long getGpsUtilLatencyMicros() {
+		return toMicros(gpsUtilLatencies);
+	}
+
+	/**
+	 * @return mean recent RewardCentral latency in microseconds, or -1 when unknown
+	 */
+	public long getRewardCentralLatencyMicros() {
+		return toMicros(rewardCentralLatencies);
+	}
+
+	public int getMinWorkers() { return minWorkers; }
+	public int getMaxWorkers() { return maxWorkers; }
+	public double getTargetUtilization() { return targetUtilization; }
+
+	private int record(TrackerCycleStats cycle, int users, long latencyNanos, double usersPerSecond,
+			long slackMillis, int workers, String reason) {
+		lastDecision = new ConcurrencyDecision(Instant.now(), users, Math.max(-1, latencyNanos / 1000),
+				usersPerSecond, slackMillis, cycle.getWorkers(), workers, reason);
+		return workers;
+	}
+
+	private static long toMicros(LatencyRecorder latencies) {
+		long nanos = latencies != null ? latencies.getMeanNanos() : -1;
+		return nanos < 0 ? -1 : nanos / 1000;
+	}
+}
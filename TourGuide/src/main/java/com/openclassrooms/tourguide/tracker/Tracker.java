@@ -1,61 +1,292 @@
 package com.openclassrooms.tourguide.tracker;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
-import org.apache.commons.lang3.time.StopWatch;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.openclassrooms.tourguide.monitoring.TrackerCycleEvent;
+import com.openclassrooms.tourguide.resilience.ExternalServiceException;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
 
-public class Tracker extends Thread {
-	private Logger logger = LoggerFactory.getLogger(Tracker.class);
-	private static final long trackingPollingInterval = TimeUnit.MINUTES.toSeconds(5);
-	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+/**
+ * Tracks every user owned by this node once per interval. Cycles are scheduled at
+ * a fixed rate from their start time, so they do not drift, but the next cycle is
+ * only scheduled once the previous one has finished: two cycles never overlap.
+ * A cycle fans the users out to a worker pool and stops at its deadline, one
+ * interval after it started, skipping the users it could not reach in time.
+ * Pausing, the interval and the pool size can all be changed while running, and
+ * a {@link ConcurrencyTuner} may resize the pool after every cycle.
+ * A new tracker is paused until {@link #resume()} is called.
+ */
+public class Tracker {
+	private static final Logger logger = LoggerFactory.getLogger(Tracker.class);
+	private static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(5);
+	private static final int DEFAULT_WORKERS = 64;
+	private static final int DEFAULT_HISTORY_SIZE = 20;
+
 	private final TourGuideService tourGuideService;
-	private boolean stop = false;
+	private final ScheduledExecutorService scheduler;
+	private final ThreadPoolExecutor workers;
+	private final Deque<TrackerCycleStats> history = new ArrayDeque<>();
+	private volatile int historySize = DEFAULT_HISTORY_SIZE;
+	private volatile Duration interval = DEFAULT_INTERVAL;
+	private volatile boolean paused = true;
+	private volatile boolean stopped;
+	private volatile boolean running;
+	private volatile long lastCycleStart = System.nanoTime();
+	private volatile ConcurrencyTuner concurrencyTuner;
+	private volatile boolean autoTuning;
+	private ScheduledFuture<?> nextCycle;
 
 	public Tracker(TourGuideService tourGuideService) {
 		this.tourGuideService = tourGuideService;
-
-		executorService.submit(this);
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+				.namingPattern("tracker-scheduler")
+				.daemon(true)
+				.build());
+		this.workers = new ThreadPoolExecutor(DEFAULT_WORKERS, DEFAULT_WORKERS, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), new BasicThreadFactory.Builder()
+						.namingPattern("tracker-worker-%d")
+						.daemon(true)
+						.build());
+		workers.allowCoreThreadTimeOut(true);
 	}
 
 	/**
-	 * Assures to shut down the Tracker thread
+	 * Assures to shut down the Tracker threads
 	 */
 	public void stopTracking() {
-		stop = true;
-		executorService.shutdownNow();
+		stopped = true;
+		scheduler.shutdownNow();
+		workers.shutdownNow();
+	}
+
+	/**
+	 * Lets the running cycle, if any, finish and does not start new ones until resumed.
+	 */
+	public void pause() {
+		paused = true;
+	}
+
+	/**
+	 * Starts a cycle right away unless one is already running.
+	 */
+	public void resume() {
+		paused = false;
+		if (!running) {
+			scheduleNext(0);
+		}
+	}
+
+	public boolean isPaused() {
+		return paused;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Takes effect from the next cycle; when idle the pending cycle is moved to the new time.
+	 */
+	public void setInterval(Duration interval) {
+		if (interval.isNegative() || interval.isZero()) {
+			throw new IllegalArgumentException("Tracker interval must be positive");
+		}
+		this.interval = interval;
+		if (!running) {
+			scheduleNext(lastCycleStart + interval.toNanos() - System.nanoTime());
+		}
+	}
+
+	public Duration getInterval() {
+		return interval;
+	}
+
+	public synchronized void setWorkers(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Tracker needs at least one worker");
+		}
+		// The maximum may never be below the core size, so the order depends on the direction
+		if (size > workers.getMaximumPoolSize()) {
+			workers.setMaximumPoolSize(size);
+			workers.setCorePoolSize(size);
+		} else {
+			workers.setCorePoolSize(size);
+			workers.setMaximumPoolSize(size);
+		}
+	}
+
+	public int getWorkers() {
+		return workers.getMaximumPoolSize();
+	}
+
+	/**
+	 * Attaches the tuner, which resizes the pool after every cycle while auto-tuning is on.
+	 */
+	public void setConcurrencyTuner(ConcurrencyTuner concurrencyTuner) {
+		this.concurrencyTuner = concurrencyTuner;
 	}
 
-	@Override
-	public void run() {
-		StopWatch stopWatch = new StopWatch();
-		while (true) {
-			if (Thread.currentThread().isInterrupted() || stop) {
-				logger.debug("Tracker stopping");
-				break;
+	public ConcurrencyTuner getConcurrencyTuner() {
+		return concurrencyTuner;
+	}
+
+	/**
+	 * Gives the pool size to the tuner or takes it back, for instance to pin it by hand.
+	 * Without a tuner attached, auto-tuning stays off.
+	 */
+	public void setAutoTuning(boolean autoTuning) {
+		this.autoTuning = autoTuning && concurrencyTuner != null;
+	}
+
+	public boolean isAutoTuning() {
+		return autoTuning;
+	}
+
+	public void setHistorySize(int historySize) {
+		this.historySize = Math.max(1, historySize);
+		synchronized (history) {
+			while (history.size() > this.historySize) {
+				history.removeFirst();
 			}
+		}
+	}
+
+	/**
+	 * @return statistics of the most recent cycles, oldest first
+	 */
+	public List<TrackerCycleStats> getHistory() {
+		synchronized (history) {
+			return new ArrayList<>(history);
+		}
+	}
 
-			List<User> users = tourGuideService.getAllUsers();
-			logger.debug("Begin Tracker. Tracking " + users.size() + " users.");
-			stopWatch.start();
-			users.forEach(u -> tourGuideService.trackUserLocation(u));
-			stopWatch.stop();
-			logger.debug("Tracker Time Elapsed: " + TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()) + " seconds.");
-			stopWatch.reset();
+	private synchronized void scheduleNext(long delayNanos) {
+		if (stopped) {
+			return;
+		}
+		if (nextCycle != null) {
+			nextCycle.cancel(false);
+		}
+		nextCycle = scheduler.schedule(this::runCycle, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+	}
+
+	private void runCycle() {
+		if (stopped || paused || running) {
+			return;
+		}
+		running = true;
+		long start = System.nanoTime();
+		lastCycleStart = start;
+		try {
+			track(start, start + interval.toNanos());
+		} catch (InterruptedException e) {
+			logger.debug("Tracker stopping");
+			Thread.currentThread().interrupt();
+			return;
+		} catch (RuntimeException e) {
+			logger.error("Tracker cycle failed", e);
+		} finally {
+			running = false;
+		}
+		scheduleNext(start + interval.toNanos() - System.nanoTime());
+	}
+
+	private void track(long start, long deadline) throws InterruptedException {
+		List<User> users = tourGuideService.getTrackedUsers();
+		logger.debug("Begin Tracker. Tracking " + users.size() + " users.");
+		TrackerCycleEvent event = new TrackerCycleEvent();
+		event.begin();
+		Instant startTime = Instant.now();
+
+		LongAdder busyNanos = new LongAdder();
+		LongAdder completed = new LongAdder();
+		List<Callable<Boolean>> tasks = new ArrayList<>(users.size());
+		for (User user : users) {
+			tasks.add(() -> {
+				long taskStart = System.nanoTime();
+				boolean trackedUser;
+				try {
+					tourGuideService.trackUserLocation(user);
+					trackedUser = true;
+				} catch (ExternalServiceException e) {
+					logger.warn("Could not track user " + user.getUserName() + ": " + e.getMessage());
+					trackedUser = false;
+				}
+				busyNanos.add(System.nanoTime() - taskStart);
+				completed.increment();
+				return trackedUser;
+			});
+		}
+		List<Future<Boolean>> results = workers.invokeAll(tasks, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+		int tracked = 0;
+		int failed = 0;
+		int skipped = 0;
+		for (Future<Boolean> result : results) {
 			try {
-				logger.debug("Tracker sleeping");
-				TimeUnit.SECONDS.sleep(trackingPollingInterval);
-			} catch (InterruptedException e) {
-				break;
+				if (result.get()) {
+					tracked++;
+				} else {
+					failed++;
+				}
+			} catch (CancellationException e) {
+				skipped++;
+			} catch (ExecutionException e) {
+				failed++;
+			}
+		}
+
+		long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		event.setTrackedUsers(tracked);
+		event.setFailedUsers(failed);
+		event.setSkippedUsers(skipped);
+		event.commit();
+		long meanUserLatencyMicros = completed.sum() == 0 ? 0
+				: TimeUnit.NANOSECONDS.toMicros(busyNanos.sum() / completed.sum());
+		TrackerCycleStats stats = new TrackerCycleStats(startTime, durationMillis, getWorkers(),
+				tracked, failed, skipped, meanUserLatencyMicros);
+		record(stats);
+		ConcurrencyTuner tuner = concurrencyTuner;
+		if (autoTuning && tuner != null) {
+			int size = tuner.decide(stats, interval);
+			if (size != stats.getWorkers()) {
+				logger.debug("Tracker workers resized from " + stats.getWorkers() + " to " + size);
+				setWorkers(size);
 			}
 		}
+		logger.debug("Tracker Time Elapsed: " + TimeUnit.MILLISECONDS.toSeconds(durationMillis) + " seconds.");
+		if (skipped > 0) {
+			logger.warn("Tracker cycle reached its deadline, " + skipped + " users were not tracked");
+		}
+	}
 
+	private void record(TrackerCycleStats stats) {
+		synchronized (history) {
+			history.addLast(stats);
+			while (history.size() > historySize) {
+				history.removeFirst();
+			}
+		}
 	}
 }
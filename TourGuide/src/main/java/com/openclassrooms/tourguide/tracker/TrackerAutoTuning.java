@@ -0,0 +1,82 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import gpsUtil.GpsUtil;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.resilience.LatencyRecorder;
+import com.openclassrooms.tourguide.resilience.ResilientGpsUtil;
+import com.openclassrooms.tourguide.resilience.ResilientRewardCentral;
+import com.openclassrooms.tourguide.service.TourGuideService;
+
+/**
+ * Attaches a {@link ConcurrencyTuner} to the tracker, fed with the gpsUtil and
+ * RewardCentral latencies recorded by their resilient wrappers, and publishes its
+ * decisions as {@code tourguide.tracker.*} gauges under {@code /actuator/metrics}.
+ * The tuner is attached even when auto-tuning is disabled, so that it can be
+ * switched on at runtime through the tracker endpoint. The pool is never sized
+ * beyond the gpsUtil bulkhead, whose extra calls would only be rejected.
+ */
+@Component
+public class TrackerAutoTuning {
+	// Gauges only hold weak references to the objects they observe
+	private final ConcurrencyTuner tuner;
+
+	public TrackerAutoTuning(TourGuideService tourGuideService, GpsUtil gpsUtil, RewardCentral rewardCentral,
+			MeterRegistry meterRegistry,
+			@Value("${tourguide.tracker.auto-tuning.enabled:true}") boolean enabled,
+			@Value("${tourguide.tracker.auto-tuning.min-workers:4}") int minWorkers,
+			@Value("${tourguide.tracker.auto-tuning.max-workers:512}") int maxWorkers,
+			@Value("${tourguide.tracker.auto-tuning.target-utilization:0.8}") double targetUtilization) {
+		LatencyRecorder gpsUtilLatencies = null;
+		if (gpsUtil instanceof ResilientGpsUtil) {
+			ResilientGpsUtil resilientGpsUtil = (ResilientGpsUtil) gpsUtil;
+			gpsUtilLatencies = resilientGpsUtil.getExecutor().getLatencies();
+			maxWorkers = Math.min(maxWorkers, resilientGpsUtil.getExecutor().getPolicy().getMaxConcurrentCalls());
+		}
+		LatencyRecorder rewardCentralLatencies = rewardCentral instanceof ResilientRewardCentral
+				? ((ResilientRewardCentral) rewardCentral).getExecutor().getLatencies()
+				: null;
+		this.tuner = new ConcurrencyTuner(Math.min(minWorkers, maxWorkers), maxWorkers,
+				targetUtilization, gpsUtilLatencies, rewardCentralLatencies);
+
+		Tracker tracker = tourGuideService.tracker;
+		tracker.setConcurrencyTuner(tuner);
+		tracker.setAutoTuning(enabled);
+		Gauge.builder("tourguide.tracker.workers", tracker, Tracker::getWorkers)
+				.description("Size of the tracker worker pool")
+				.register(meterRegistry);
+		Gauge.builder("tourguide.tracker.auto.tuning", tracker, t -> t.isAutoTuning() ? 1 : 0)
+				.description("1 while the worker pool is sized by the tuner")
+				.register(meterRegistry);
+		decisionGauge(meterRegistry, tuner, "tourguide.tracker.tuning.target.workers", "Workers chosen after the last cycle",
+				null, ConcurrencyDecision::getWorkers);
+		decisionGauge(meterRegistry, tuner, "tourguide.tracker.tuning.user.latency", "Time to track one user used for sizing",
+				"microseconds", ConcurrencyDecision::getUserLatencyMicros);
+		decisionGauge(meterRegistry, tuner, "tourguide.tracker.tuning.arrival.rate", "Users per second needed to meet the deadline",
+				null, ConcurrencyDecision::getUsersPerSecond);
+		decisionGauge(meterRegistry, tuner, "tourguide.tracker.tuning.deadline.slack", "Time left before the deadline in the last cycle",
+				"milliseconds", ConcurrencyDecision::getDeadlineSlackMillis);
+		Gauge.builder("tourguide.external.latency.mean", tuner, ConcurrencyTuner::getGpsUtilLatencyMicros)
+				.tag("dependency", "gps-util")
+				.baseUnit("microseconds")
+				.register(meterRegistry);
+		Gauge.builder("tourguide.external.latency.mean", tuner, ConcurrencyTuner::getRewardCentralLatencyMicros)
+				.tag("dependency", "reward-central")
+				.baseUnit("microseconds")
+				.register(meterRegistry);
+	}
+
+	private static void decisionGauge(MeterRegistry meterRegistry, ConcurrencyTuner tuner, String name,
+			String description, String baseUnit, ToDoubleFunction<ConcurrencyDecision> value) {
+		Gauge.builder(name, tuner, t -> t.getLastDecision() == null ? Double.NaN : value.applyAsDouble(t.getLastDecision()))
+				.description(description)
+				.baseUnit(baseUnit)
+				.register(meterRegistry);
+	}
+}
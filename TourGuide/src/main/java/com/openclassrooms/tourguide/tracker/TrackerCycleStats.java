@@ -0,0 +1,36 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Instant;
+
+/**
+ * Outcome of one tracker cycle. Users left when the cycle reached its deadline are counted as skipped.
+ */
+public class TrackerCycleStats {
+	private final Instant startTime;
+	private final long durationMillis;
+	private final int workers;
+	private final int trackedUsers;
+	private final int failedUsers;
+	private final int skippedUsers;
+	private final long meanUserLatencyMicros;
+
+	public TrackerCycleStats(Instant startTime, long durationMillis, int workers,
+			int trackedUsers, int failedUsers, int skippedUsers, long meanUserLatencyMicros) {
+		this.startTime = startTime;
+		this.durationMillis = durationMillis;
+		this.workers = workers;
+		this.trackedUsers = trackedUsers;
+		this.failedUsers = failedUsers;
+		this.skippedUsers = skippedUsers;
+		this.meanUserLatencyMicros = meanUserLatencyMicros;
+	}
+
+	public Instant getStartTime() { return startTime; }
+	public long getDurationMillis() { return durationMillis; }
+	public int getWorkers() { return workers; }
+	public int getTrackedUsers() { return trackedUsers; }
+	public int getFailedUsers() { return failedUsers; }
+	public int getSkippedUsers() { return skippedUsers; }
+	/** Mean time taken to track one user, failures included; 0 when no user completed. */
+	public long getMeanUserLatencyMicros() { return meanUserLatencyMicros; }
+}
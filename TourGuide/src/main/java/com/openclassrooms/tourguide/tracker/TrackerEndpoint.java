@@ -0,0 +1,75 @@
+package com.openclassrooms.tourguide.tracker;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.tourguide.service.TourGuideService;
+
+/**
+ * Actuator endpoint ({@code /actuator/tracker}) to inspect the tracker and, through
+ * a POST, to pause or resume it, change its interval or resize its worker pool
+ * without a restart. A pool size set by hand is only kept once auto-tuning is
+ * switched off, as the tuner resizes the pool after every cycle. The configured
+ * interval, pool size and history size are applied on startup.
+ */
+@Component
+@Endpoint(id = "tracker")
+public class TrackerEndpoint {
+	private final Tracker tracker;
+
+	public TrackerEndpoint(TourGuideService tourGuideService,
+			@Value("${tourguide.tracker.interval-seconds:300}") long intervalSeconds,
+			@Value("${tourguide.tracker.workers:64}") int workers,
+			@Value("${tourguide.tracker.history-size:20}") int historySize) {
+		this.tracker = tourGuideService.tracker;
+		tracker.setInterval(Duration.ofSeconds(intervalSeconds));
+		tracker.setWorkers(workers);
+		tracker.setHistorySize(historySize);
+	}
+
+	@ReadOperation
+	public Map<String, Object> status() {
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("paused", tracker.isPaused());
+		status.put("running", tracker.isRunning());
+		status.put("intervalSeconds", tracker.getInterval().toSeconds());
+		status.put("workers", tracker.getWorkers());
+		status.put("autoTuning", tracker.isAutoTuning());
+		ConcurrencyTuner tuner = tracker.getConcurrencyTuner();
+		if (tuner != null) {
+			status.put("lastTuning", tuner.getLastDecision());
+		}
+		status.put("cycles", tracker.getHistory());
+		return status;
+	}
+
+	@WriteOperation
+	public Map<String, Object> update(@Nullable Boolean paused, @Nullable Long intervalSeconds, @Nullable Integer workers,
+			@Nullable Boolean autoTuning) {
+		if (autoTuning != null) {
+			tracker.setAutoTuning(autoTuning);
+		}
+		if (intervalSeconds != null) {
+			tracker.setInterval(Duration.ofSeconds(intervalSeconds));
+		}
+		if (workers != null) {
+			tracker.setWorkers(workers);
+		}
+		if (paused != null) {
+			if (paused) {
+				tracker.pause();
+			} else {
+				tracker.resume();
+			}
+		}
+		return status();
+	}
+}
@@ -4,7 +4,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 import gpsUtil.location.VisitedLocation;
 import tripPricer.Provider;
@@ -15,8 +15,7 @@ public class User {
 	private String phoneNumber;
 	private String emailAddress;
 	private Date latestLocationTimestamp;
-	private List<VisitedLocation> visitedLocations = new ArrayList<>();
-	private List<UserReward> userRewards = new CopyOnWriteArrayList<>();
+	private final AtomicReference<UserSnapshot> state = new AtomicReference<>(UserSnapshot.EMPTY);
 	private UserPreferences userPreferences = new UserPreferences();
 	private List<Provider> tripDeals = new ArrayList<>();
 	public User(UUID userId, String userName, String phoneNumber, String emailAddress) {
@@ -58,27 +57,57 @@ public class User {
 		return latestLocationTimestamp;
 	}
 	
-	public void addToVisitedLocations(VisitedLocation visitedLocation) {
-		visitedLocations.add(visitedLocation);
+	/**
+	 * Current state of the user's locations and rewards; never changes once returned.
+	 */
+	public UserSnapshot getSnapshot() {
+		return state.get();
+	}
+	
+	/**
+	 * @return the snapshot that includes the new location
+	 */
+	public UserSnapshot addToVisitedLocations(VisitedLocation visitedLocation) {
+		return state.updateAndGet(snapshot -> snapshot.withVisitedLocation(visitedLocation));
 	}
 	
 	public List<VisitedLocation> getVisitedLocations() {
-		return visitedLocations;
+		return state.get().getVisitedLocations();
 	}
 	
 	public void clearVisitedLocations() {
-		visitedLocations.clear();
+		state.updateAndGet(UserSnapshot::withoutVisitedLocations);
+	}
+	
+	public List<VisitedLocation> getVisitedLocationsBetween(long fromMillis, long toMillis, int offset, int limit) {
+		return state.get().getVisitedLocationsBetween(fromMillis, toMillis, offset, limit);
 	}
 	
-	public void addUserReward(UserReward userReward) {
-		if (userRewards.stream().noneMatch(r ->
-				r.attraction.attractionId.equals(userReward.attraction.attractionId))) {
-			userRewards.add(userReward);
+	public int countVisitedLocationsBetween(long fromMillis, long toMillis) {
+		return state.get().countVisitedLocationsBetween(fromMillis, toMillis);
+	}
+	
+	/**
+	 * @return true if the reward was added, false if the attraction was already rewarded
+	 */
+	public boolean addUserReward(UserReward userReward) {
+		while (true) {
+			UserSnapshot current = state.get();
+			if (current.hasRewardFor(userReward.attraction.attractionId)) {
+				return false;
+			}
+			if (state.compareAndSet(current, current.withUserReward(userReward))) {
+				return true;
+			}
 		}
 	}
 	
 	public List<UserReward> getUserRewards() {
-		return userRewards;
+		return state.get().getUserRewards();
+	}
+	
+	public long getVersion() {
+		return state.get().getVersion();
 	}
 	
 	public UserPreferences getUserPreferences() {
@@ -90,7 +119,7 @@ public class User {
 	}
 
 	public VisitedLocation getLastVisitedLocation() {
-		return visitedLocations.get(visitedLocations.size() - 1);
+		return state.get().getLastVisitedLocation();
 	}
 	
 	public void setTripDeals(List<Provider> tripDeals) {
@@ -0,0 +1,127 @@
+package com.openclassrooms.tourguide.user;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import gpsUtil.location.VisitedLocation;
+
+/**
+ * Immutable, versioned view of a user's locations and rewards. A {@link User}
+ * publishes a new snapshot for every change by swapping a single reference, so
+ * readers always see locations, rewards and version from the same instant
+ * without taking any lock.
+ */
+public final class UserSnapshot {
+	static final UserSnapshot EMPTY = new UserSnapshot(List.of(), List.of(), 0);
+
+	private final List<VisitedLocation> visitedLocations;
+	private final List<UserReward> userRewards;
+	private final long version;
+
+	private UserSnapshot(List<VisitedLocation> visitedLocations, List<UserReward> userRewards, long version) {
+		this.visitedLocations = visitedLocations;
+		this.userRewards = userRewards;
+		this.version = version;
+	}
+
+	/**
+	 * @return unmodifiable list of the visited locations, oldest first
+	 */
+	public List<VisitedLocation> getVisitedLocations() {
+		return visitedLocations;
+	}
+
+	/**
+	 * @return the most recently visited location, even if an older one was recorded after it
+	 */
+	public VisitedLocation getLastVisitedLocation() {
+		return visitedLocations.get(visitedLocations.size() - 1);
+	}
+
+	/**
+	 * @return unmodifiable list of the rewards, at most one per attraction
+	 */
+	public List<UserReward> getUserRewards() {
+		return userRewards;
+	}
+
+	/**
+	 * Changes whenever the user's locations or rewards change; used as the ETag of their responses.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public boolean hasRewardFor(UUID attractionId) {
+		for (UserReward reward : userRewards) {
+			if (reward.attraction.attractionId.equals(attractionId)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Page of the locations visited between two instants (inclusive, epoch millis), oldest first.
+	 * Both ends of the range are found by binary search, so the cost does not depend on the history length.
+	 */
+	public List<VisitedLocation> getVisitedLocationsBetween(long fromMillis, long toMillis, int offset, int limit) {
+		long start = (long) firstAtOrAfter(fromMillis) + Math.max(0, offset);
+		long end = Math.min(firstAfter(toMillis), start + Math.max(0, limit));
+		return start >= end ? new ArrayList<>() : new ArrayList<>(visitedLocations.subList((int) start, (int) end));
+	}
+
+	public int countVisitedLocationsBetween(long fromMillis, long toMillis) {
+		return Math.max(0, firstAfter(toMillis) - firstAtOrAfter(fromMillis));
+	}
+
+	UserSnapshot withVisitedLocation(VisitedLocation visitedLocation) {
+		// Locations nearly always arrive in time order and are appended; an older one is inserted in place
+		return new UserSnapshot(
+				insert(visitedLocations, firstAfter(visitedLocation.timeVisited.getTime()), visitedLocation),
+				userRewards,
+				version + 1);
+	}
+
+	UserSnapshot withoutVisitedLocations() {
+		return new UserSnapshot(List.of(), userRewards, version + 1);
+	}
+
+	UserSnapshot withUserReward(UserReward userReward) {
+		return new UserSnapshot(visitedLocations, insert(userRewards, userRewards.size(), userReward), version + 1);
+	}
+
+	private int firstAtOrAfter(long time) {
+		return time == Long.MIN_VALUE ? 0 : firstAfter(time - 1);
+	}
+
+	private int firstAfter(long time) {
+		int low = 0;
+		int high = visitedLocations.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (visitedLocations.get(middle).timeVisited.getTime() <= time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> insert(List<T> list, int index, T element) {
+		Object[] copy = new Object[list.size() + 1];
+		for (int i = 0; i < index; i++) {
+			copy[i] = list.get(i);
+		}
+		copy[index] = element;
+		for (int i = index; i < list.size(); i++) {
+			copy[i + 1] = list.get(i);
+		}
+		return (List<T>) Collections.unmodifiableList(Arrays.asList(copy));
+	}
+}
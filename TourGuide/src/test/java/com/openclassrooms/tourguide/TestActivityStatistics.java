@@ -0,0 +1,71 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.dto.AttractionStatsDTO;
+import com.openclassrooms.tourguide.dto.HeatmapCellDTO;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.stats.ActivityStatistics;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestActivityStatistics {
+    @Test
+    public void countsUsersRewardedAtEachAttraction() {
+        GpsUtil gpsUtil = new GpsUtil();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        ActivityStatistics statistics = new ActivityStatistics(tourGuideService, rewardsService, 1.0);
+
+        Attraction attraction = rewardsService.getAttractions().get(0);
+        for (int i = 0; i < 3; i++) {
+            User user = new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com");
+            user.addToVisitedLocations(new VisitedLocation(user.getUserId(), attraction, new Date()));
+            rewardsService.calculateRewards(user);
+            rewardsService.calculateRewards(user);
+        }
+        tourGuideService.tracker.stopTracking();
+
+        List<AttractionStatsDTO> stats = statistics.getAttractionStats();
+        assertEquals(rewardsService.getAttractions().size(), stats.size());
+        assertEquals(attraction.attractionName, stats.get(0).getAttractionName());
+        assertEquals(3, stats.get(0).getRewardedUsers());
+    }
+
+    @Test
+    public void groupsTrackedLocationsByCell() {
+        GpsUtil gpsUtil = new GpsUtil();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        ActivityStatistics statistics = new ActivityStatistics(tourGuideService, rewardsService, 1.0);
+
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        statistics.onLocationTracked(user, new VisitedLocation(user.getUserId(), new Location(48.2, 2.3), new Date()));
+        statistics.onLocationTracked(user, new VisitedLocation(user.getUserId(), new Location(48.9, 2.9), new Date()));
+        statistics.onLocationTracked(user, new VisitedLocation(user.getUserId(), new Location(-33.5, -70.6), new Date()));
+        tourGuideService.tracker.stopTracking();
+
+        List<HeatmapCellDTO> heatmap = statistics.getHeatmap();
+        assertEquals(2, heatmap.size());
+        assertEquals(48.0, heatmap.get(0).getLatitude());
+        assertEquals(2.0, heatmap.get(0).getLongitude());
+        assertEquals(2, heatmap.get(0).getVisits());
+        assertEquals(-34.0, heatmap.get(1).getLatitude());
+        assertEquals(-71.0, heatmap.get(1).getLongitude());
+        assertEquals(1, heatmap.get(1).getVisits());
+    }
+}
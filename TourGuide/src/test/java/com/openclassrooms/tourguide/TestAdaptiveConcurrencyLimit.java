@@ -0,0 +1,107 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.admission.AdaptiveConcurrencyLimit;
+
+public class TestAdaptiveConcurrencyLimit {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void limitShrinksWhenLatencyGrowsAndRecovers() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 10, 200, 2.0, 0.5);
+        serve(limit, 5, FAST);
+        int steady = limit.getLimit();
+        assertEquals(200, steady);
+
+        serve(limit, 1, SLOW);
+        assertTrue(limit.getLimit() < steady / 2);
+
+        serve(limit, 20, FAST);
+        assertTrue(limit.getLimit() > 50);
+    }
+
+    @Test
+    public void limitOnlyGrowsWhenItIsUsed() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 10, 200, 2.0, 0.5);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(limit.tryAcquire(false));
+            limit.release(false, FAST);
+        }
+        assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    public void limitStaysStableWhenTheMixOfRequestsChanges() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 10, 200, 2.0, 0.5);
+        // Expensive requests take ten times longer than cheap ones, with or without load
+        serveMix(limit, 10, 10);
+        int steady = limit.getLimit();
+        assertEquals(200, steady);
+
+        // Far more expensive requests, at the same latency per class
+        serveMix(limit, 20, 2);
+        assertEquals(steady, limit.getLimit());
+    }
+
+    @Test
+    public void lowPriorityRequestsAreShedFirst() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 10, 10, 2.0, 0.5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(true));
+        }
+        assertFalse(limit.tryAcquire(true));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(false));
+        }
+        assertFalse(limit.tryAcquire(false));
+        assertEquals(2, limit.getRejected());
+
+        limit.release(false, -1);
+        assertTrue(limit.tryAcquire(false));
+    }
+
+    /**
+     * Admits requests until the limit is reached, then releases them all, {@code rounds} times.
+     */
+    private static void serve(AdaptiveConcurrencyLimit limit, int rounds, long latencyNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire(false)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(false, latencyNanos);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #serve}, with one expensive request every {@code expensiveEvery} requests.
+     */
+    private static void serveMix(AdaptiveConcurrencyLimit limit, int rounds, int expensiveEvery) {
+        for (int round = 0; round < rounds; round++) {
+            List<Boolean> admitted = new ArrayList<>();
+            for (int i = 0; ; i++) {
+                boolean expensive = i % expensiveEvery == 0;
+                if (limit.tryAcquire(expensive)) {
+                    admitted.add(expensive);
+                } else if (!expensive) {
+                    break;
+                }
+            }
+            for (boolean expensive : admitted) {
+                limit.release(expensive, expensive ? SLOW : FAST);
+            }
+        }
+    }
+}
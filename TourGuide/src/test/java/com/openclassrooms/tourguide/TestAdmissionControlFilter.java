@@ -0,0 +1,79 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.openclassrooms.tourguide.admission.AdmissionControlFilter;
+
+public class TestAdmissionControlFilter {
+
+    @Test
+    public void overloadIsAnsweredWith503AndRetryAfter() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(2, 2, 2, 2.0, 0.5, "/getTripDeals");
+        assertTrue(filter.getLimit().tryAcquire(false));
+        assertTrue(filter.getLimit().tryAcquire(false));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/getLocation"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+        assertEquals(1, filter.getLimit().getRejected());
+    }
+
+    @Test
+    public void expensivePathsOnlyGetPartOfTheLimit() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(2, 2, 2, 2.0, 0.5, "/getTripDeals");
+        assertTrue(filter.getLimit().tryAcquire(false));
+
+        MockHttpServletResponse expensive = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/getTripDeals"), expensive, new MockFilterChain());
+        MockHttpServletResponse cheap = new MockHttpServletResponse();
+        MockFilterChain cheapChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/getLocation"), cheap, cheapChain);
+
+        assertEquals(503, expensive.getStatus());
+        assertEquals(200, cheap.getStatus());
+        assertNotNull(cheapChain.getRequest());
+        assertEquals(1, filter.getLimit().getInFlight());
+    }
+
+    @Test
+    public void failedRequestsReleaseTheirSlot() {
+        AdmissionControlFilter filter = new AdmissionControlFilter(2, 2, 2, 2.0, 0.5, "/getTripDeals");
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/getLocation"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    throw new IllegalStateException("handler failed");
+                }));
+
+        assertEquals(0, filter.getLimit().getInFlight());
+        assertEquals(2, filter.getLimit().getLimit());
+    }
+
+    @Test
+    public void asyncRequestsReleaseTheirSlotWhenTheThreadReturns() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(1, 1, 1, 2.0, 0.5, "/getTripDeals");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/getLocationHistory");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertTrue(request.isAsyncStarted());
+        assertEquals(0, filter.getLimit().getInFlight());
+        MockHttpServletResponse next = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/getLocation"), next, new MockFilterChain());
+        assertEquals(200, next.getStatus());
+    }
+}
@@ -0,0 +1,153 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.cluster.ClusterMembership;
+import com.openclassrooms.tourguide.dto.NearbyUserDTO;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.proximity.AttractionProximityIndex;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestAttractionProximityIndex {
+
+    @Test
+    public void findsUsersWithinRadiusClosestFirst() {
+        GpsUtil gpsUtil = new GpsUtil();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        AttractionProximityIndex index = new AttractionProximityIndex(tourGuideService, rewardsService, 0.5);
+
+        Location disneyland = new Location(33.817595, -117.922008);
+        User near = track(index, "near", 33.85, -117.92);
+        track(index, "closest", 33.8176, -117.922);
+        track(index, "far", 34.5, -117.92);
+
+        List<String> names = names(index.getUsersWithin(disneyland, 10));
+        assertEquals(List.of("closest", "near"), names);
+
+        track(index, near, 40.0, -100.0);
+        List<String> namesAfterMove = names(index.getUsersWithin(disneyland, 10));
+        List<NearbyUserDTO> withinLargeRadius = index.getUsersWithin(disneyland, 5000);
+        tourGuideService.tracker.stopTracking();
+
+        assertEquals(List.of("closest"), namesAfterMove);
+        assertEquals(3, withinLargeRadius.size());
+    }
+
+    @Test
+    public void searchWrapsAroundTheAntimeridian() {
+        GpsUtil gpsUtil = new GpsUtil();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        AttractionProximityIndex index = new AttractionProximityIndex(tourGuideService, rewardsService, 0.5);
+
+        track(index, "east", 0, 179.95);
+        track(index, "west", 0, -179.95);
+
+        List<NearbyUserDTO> nearby = index.getUsersWithin(new Location(0, 179.99), 10);
+        tourGuideService.tracker.stopTracking();
+        assertEquals(2, nearby.size());
+        assertTrue(nearby.get(1).getDistance() < 10);
+    }
+
+    @Test
+    public void farQueryNeverVisitsADenseCluster() {
+        GpsUtil gpsUtil = new GpsUtil();
+        AtomicInteger distances = new AtomicInteger();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral()) {
+            @Override
+            public double getDistance(double latitude1, double longitude1, double latitude2, double longitude2) {
+                distances.incrementAndGet();
+                return super.getDistance(latitude1, longitude1, latitude2, longitude2);
+            }
+        };
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        AttractionProximityIndex index = new AttractionProximityIndex(tourGuideService, rewardsService, 0.5);
+
+        // A thousand users in a couple of cells, far fewer than the query covers
+        for (int i = 0; i < 1000; i++) {
+            track(index, "cluster" + i, 40.0 + (i % 10) * 0.01, -100.0 + (i / 10) * 0.001);
+        }
+        track(index, "alone", 33.8176, -117.922);
+        distances.set(0);
+
+        List<String> names = names(index.getUsersWithin(new Location(33.817595, -117.922008), 10));
+        tourGuideService.tracker.stopTracking();
+
+        assertEquals(List.of("alone"), names);
+        assertEquals(1, distances.get());
+    }
+
+    @Test
+    public void usersMovedToAnotherNodeAreForgotten() {
+        GpsUtil gpsUtil = new GpsUtil();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        AttractionProximityIndex index = new AttractionProximityIndex(tourGuideService, rewardsService, 0.5);
+        Set<String> movedAway = ConcurrentHashMap.newKeySet();
+        AtomicReference<Runnable> rebalance = new AtomicReference<>();
+        ClusterMembership membership = new ClusterMembership("", "", 128, 60000) {
+            @Override
+            public boolean isLocal(String userName) {
+                return !movedAway.contains(userName);
+            }
+
+            @Override
+            public void addRebalanceListener(Runnable listener) {
+                rebalance.set(listener);
+            }
+        };
+        tourGuideService.setClusterMembership(membership);
+
+        User kept = track(index, "kept", 33.85, -117.92);
+        User moved = track(index, "moved", 33.8176, -117.922);
+        tourGuideService.addUser(kept);
+        tourGuideService.addUser(moved);
+        movedAway.add("moved");
+        rebalance.get().run();
+
+        Location disneyland = new Location(33.817595, -117.922008);
+        List<String> names = names(index.getUsersWithin(disneyland, 10));
+        List<String> namesWithinLargeRadius = names(index.getUsersWithin(disneyland, 5000));
+        tourGuideService.tracker.stopTracking();
+
+        assertEquals(List.of("kept"), names);
+        assertEquals(List.of("kept"), namesWithinLargeRadius);
+    }
+
+    private static User track(AttractionProximityIndex index, String userName, double latitude, double longitude) {
+        User user = new User(UUID.randomUUID(), userName, "000", userName + "@tourGuide.com");
+        track(index, user, latitude, longitude);
+        return user;
+    }
+
+    private static void track(AttractionProximityIndex index, User user, double latitude, double longitude) {
+        index.onLocationTracked(user, new VisitedLocation(user.getUserId(), new Location(latitude, longitude), new Date()));
+    }
+
+    private static List<String> names(List<NearbyUserDTO> users) {
+        return users.stream().map(NearbyUserDTO::getUserName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.resilience.LatencyRecorder;
+import com.openclassrooms.tourguide.tracker.ConcurrencyTuner;
+import com.openclassrooms.tourguide.tracker.TrackerCycleStats;
+
+public class TestConcurrencyTuner {
+    private static final Duration INTERVAL = Duration.ofSeconds(10);
+
+    @Test
+    public void poolFollowsLittlesLaw() {
+        ConcurrencyTuner tuner = new ConcurrencyTuner(1, 1000, 0.8, null, null);
+
+        // 10,000 users in 8 s is 1,250 users/s; at 100 ms each that keeps 125 workers busy
+        assertEquals(125, tuner.decide(cycle(120, 10000, 0, 100_000), INTERVAL));
+        assertEquals(125, tuner.getLastDecision().getWorkers());
+        assertEquals(1250, tuner.getLastDecision().getUsersPerSecond(), 0.001);
+    }
+
+    @Test
+    public void poolShrinksGraduallyAndGrowsAtOnce() {
+        ConcurrencyTuner tuner = new ConcurrencyTuner(1, 1000, 0.8, null, null);
+
+        assertEquals(150, tuner.decide(cycle(200, 10000, 0, 10_000), INTERVAL));
+        assertEquals("shrinking", tuner.getLastDecision().getReason());
+        assertEquals(500, tuner.decide(cycle(150, 10000, 0, 400_000), INTERVAL));
+    }
+
+    @Test
+    public void missedDeadlineScalesWithUsersLeftBehind() {
+        ConcurrencyTuner tuner = new ConcurrencyTuner(1, 1000, 0.8, null, null);
+
+        assertEquals(40, tuner.decide(cycle(10, 1000, 3000, 1_000), INTERVAL));
+        assertEquals("missed-deadline", tuner.getLastDecision().getReason());
+    }
+
+    @Test
+    public void cycleOverBudgetGrowsThePoolDespiteLowLatency() {
+        ConcurrencyTuner tuner = new ConcurrencyTuner(1, 1000, 0.8, null, null);
+
+        // Little's law alone would shrink to 75, but 9.5 s against an 8 s budget leaves only 500 ms of slack
+        assertEquals(119, tuner.decide(cycle(9500, 100, 10000, 0, 10_000), INTERVAL));
+        assertEquals("low-slack", tuner.getLastDecision().getReason());
+        assertEquals(500, tuner.getLastDecision().getDeadlineSlackMillis());
+    }
+
+    @Test
+    public void gpsUtilSlowdownIsAnticipatedAndPoolIsCapped() {
+        LatencyRecorder gpsUtilLatencies = new LatencyRecorder();
+        for (int i = 0; i < 64; i++) {
+            gpsUtilLatencies.record(Duration.ofMillis(800).toNanos());
+        }
+        ConcurrencyTuner tuner = new ConcurrencyTuner(4, 200, 0.8, gpsUtilLatencies, null);
+
+        assertEquals(200, tuner.decide(cycle(100, 10000, 0, 100_000), INTERVAL));
+        assertEquals("capped", tuner.getLastDecision().getReason());
+        assertEquals(800_000, tuner.getLastDecision().getUserLatencyMicros());
+        assertEquals(800_000, tuner.getGpsUtilLatencyMicros());
+        assertEquals(-1, tuner.getRewardCentralLatencyMicros());
+    }
+
+    private static TrackerCycleStats cycle(int workers, int tracked, int skipped, long meanUserLatencyMicros) {
+        return cycle(5000, workers, tracked, skipped, meanUserLatencyMicros);
+    }
+
+    private static TrackerCycleStats cycle(long durationMillis, int workers, int tracked, int skipped,
+                                           long meanUserLatencyMicros) {
+        return new TrackerCycleStats(Instant.now(), durationMillis, workers, tracked, 0, skipped, meanUserLatencyMicros);
+    }
+}
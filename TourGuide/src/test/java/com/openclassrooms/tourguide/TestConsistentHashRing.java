@@ -0,0 +1,60 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.cluster.ConsistentHashRing;
+
+public class TestConsistentHashRing {
+    private final List<UUID> userIds = IntStream.range(0, 30000)
+            .mapToObj(i -> UUID.randomUUID())
+            .collect(Collectors.toList());
+
+    @Test
+    public void usersAreSpreadEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+
+        Map<String, Long> perNode = userIds.stream()
+                .collect(Collectors.groupingBy(ring::ownerOf, Collectors.counting()));
+
+        assertEquals(3, perNode.size());
+        perNode.values().forEach(count -> assertTrue(count > 8000 && count < 12000));
+    }
+
+    @Test
+    public void onlyUsersOfLeavingNodeMove() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-b"), 128);
+
+        Map<UUID, String> owners = new HashMap<>();
+        userIds.forEach(id -> owners.put(id, before.ownerOf(id)));
+
+        for (UUID id : userIds) {
+            if (!owners.get(id).equals("node-c")) {
+                assertEquals(owners.get(id), after.ownerOf(id));
+            }
+        }
+    }
+
+    @Test
+    public void joiningNodeTakesAboutItsShare() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node-a", "node-b"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node-a", "node-b", "node-c"), 128);
+
+        long moved = userIds.stream().filter(id -> !before.ownerOf(id).equals(after.ownerOf(id))).count();
+
+        userIds.stream()
+                .filter(id -> !before.ownerOf(id).equals(after.ownerOf(id)))
+                .forEach(id -> assertEquals("node-c", after.ownerOf(id)));
+        assertTrue(moved < userIds.size() / 2);
+    }
+}
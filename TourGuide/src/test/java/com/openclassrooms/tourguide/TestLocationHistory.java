@@ -0,0 +1,69 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestLocationHistory {
+
+    @Test
+    public void rangeIsOrderedByTimeAndPaged() {
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        for (int i = 0; i < 100; i++) {
+            visit(user, i * 1000L);
+        }
+        // Arrives late but belongs in the middle of the history
+        visit(user, 10500L);
+
+        assertEquals(12, user.countVisitedLocationsBetween(5000, 15000));
+        List<VisitedLocation> firstPage = user.getVisitedLocationsBetween(5000, 15000, 0, 5);
+        List<VisitedLocation> lastPage = user.getVisitedLocationsBetween(5000, 15000, 10, 5);
+
+        assertEquals(5, firstPage.size());
+        assertEquals(5000L, firstPage.get(0).timeVisited.getTime());
+        assertEquals(2, lastPage.size());
+        assertEquals(14000L, lastPage.get(0).timeVisited.getTime());
+        assertEquals(15000L, lastPage.get(1).timeVisited.getTime());
+        List<VisitedLocation> around = user.getVisitedLocationsBetween(10000, 11000, 0, 10);
+        assertEquals(10500L, around.get(1).timeVisited.getTime());
+    }
+
+    @Test
+    public void emptyRanges() {
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        visit(user, 1000L);
+
+        assertTrue(user.getVisitedLocationsBetween(2000, 3000, 0, 10).isEmpty());
+        assertTrue(user.getVisitedLocationsBetween(0, 5000, 1, 10).isEmpty());
+        assertEquals(0, user.countVisitedLocationsBetween(3000, 2000));
+        user.clearVisitedLocations();
+        assertEquals(0, user.countVisitedLocationsBetween(0, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void lateLocationIsInsertedInPlace() {
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        visit(user, 1000L);
+        visit(user, 3000L);
+        visit(user, 2000L);
+
+        List<VisitedLocation> visited = user.getVisitedLocations();
+        assertEquals(3, visited.size());
+        assertEquals(1000L, visited.get(0).timeVisited.getTime());
+        assertEquals(2000L, visited.get(1).timeVisited.getTime());
+        assertEquals(3000L, user.getLastVisitedLocation().timeVisited.getTime());
+    }
+
+    private static void visit(User user, long time) {
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(0, 0), new Date(time)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.openclassrooms.tourguide.cluster.ClusterMembership;
+import com.openclassrooms.tourguide.cluster.PartitionRoutingFilter;
+
+public class TestPartitionRoutingFilter {
+    private static final String SELF = "http://localhost:1";
+    private static final String FORWARDED_HEADER = "X-TourGuide-Forwarded-By";
+
+    @Test
+    public void requestsAreServedByTheOwnerOfTheUser() throws Exception {
+        AtomicReference<String> forwardedBy = new AtomicReference<>();
+        HttpServer peer = startPeer(forwardedBy);
+        String peerUrl = "http://localhost:" + peer.getAddress().getPort();
+        ClusterMembership membership = new ClusterMembership(SELF, SELF + "," + peerUrl, 128, 60000);
+        try {
+            awaitLiveNodes(membership, 2);
+            PartitionRoutingFilter filter = new PartitionRoutingFilter(membership);
+            // Never created on either node: routing must not depend on knowing the user
+            String remoteUser = userOwnedBy(membership, peerUrl);
+            String localUser = userOwnedBy(membership, SELF);
+
+            MockHttpServletResponse forwarded = new MockHttpServletResponse();
+            MockFilterChain remoteChain = new MockFilterChain();
+            filter.doFilter(request(remoteUser), forwarded, remoteChain);
+            assertNull(remoteChain.getRequest());
+            assertEquals(200, forwarded.getStatus());
+            assertEquals("from peer", forwarded.getContentAsString());
+            assertEquals(SELF, forwardedBy.get());
+
+            MockFilterChain localChain = new MockFilterChain();
+            filter.doFilter(request(localUser), new MockHttpServletResponse(), localChain);
+            assertNotNull(localChain.getRequest());
+
+            // A request a peer already forwarded is never forwarded again
+            MockHttpServletRequest alreadyForwarded = request(remoteUser);
+            alreadyForwarded.addHeader(FORWARDED_HEADER, peerUrl);
+            MockFilterChain loopChain = new MockFilterChain();
+            filter.doFilter(alreadyForwarded, new MockHttpServletResponse(), loopChain);
+            assertNotNull(loopChain.getRequest());
+
+            // The peer is still in the ring but no longer answers
+            peer.stop(0);
+            peer = null;
+            MockHttpServletResponse unavailable = new MockHttpServletResponse();
+            MockFilterChain fallbackChain = new MockFilterChain();
+            filter.doFilter(request(remoteUser), unavailable, fallbackChain);
+            assertNull(fallbackChain.getRequest());
+            assertEquals(503, unavailable.getStatus());
+            assertEquals("1", unavailable.getHeader("Retry-After"));
+        } finally {
+            membership.stop();
+            if (peer != null) {
+                peer.stop(0);
+            }
+        }
+    }
+
+    @Test
+    public void singleNodeServesEverythingLocally() throws Exception {
+        ClusterMembership membership = new ClusterMembership("", "", 128, 60000);
+        PartitionRoutingFilter filter = new PartitionRoutingFilter(membership);
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("internalUser1"), new MockHttpServletResponse(), chain);
+        membership.stop();
+
+        assertNotNull(chain.getRequest());
+        assertTrue(membership.isLocal("internalUser1"));
+    }
+
+    private static HttpServer startPeer(AtomicReference<String> forwardedBy) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/livez", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/getLocation", exchange -> {
+            forwardedBy.set(exchange.getRequestHeaders().getFirst(FORWARDED_HEADER));
+            byte[] body = "from peer".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static MockHttpServletRequest request(String userName) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/getLocation");
+        request.setParameter("userName", userName);
+        request.setQueryString("userName=" + userName);
+        return request;
+    }
+
+    private static String userOwnedBy(ClusterMembership membership, String node) {
+        List<String> names = IntStream.range(0, 1000).mapToObj(i -> "user" + i).toList();
+        return names.stream().filter(name -> membership.ownerOf(name).equals(node)).findFirst().orElseThrow();
+    }
+
+    private static void awaitLiveNodes(ClusterMembership membership, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (membership.getLiveNodes().size() < count) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the peer to join");
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+}
@@ -1,25 +1,43 @@
 package com.openclassrooms.tourguide;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.time.StopWatch;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.dto.UserRewardDTO;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.simulator.LatencyModel;
+import com.openclassrooms.tourguide.simulator.MovementModel;
+import com.openclassrooms.tourguide.simulator.SimulatedGpsUtil;
+import com.openclassrooms.tourguide.simulator.SimulatedRewardCentral;
 import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
 
 public class TestPerformance {
 
@@ -44,6 +62,8 @@ public class TestPerformance {
      * highVolumeGetRewards: 100,000 users within 20 minutes:
      * assertTrue(TimeUnit.MINUTES.toSeconds(20) >=
      * TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
+     *
+     * Benchmarks that only report figures run with -Dtourguide.benchmarks=true.
      */
 
     //	@Disabled
@@ -90,9 +110,7 @@ public class TestPerformance {
         allUsers = tourGuideService.getAllUsers();
         allUsers.forEach(u -> u.addToVisitedLocations(new VisitedLocation(u.getUserId(), attraction, new Date())));
 
-        for (User u : allUsers) {
-            rewardsService.calculateRewards(u);
-        }
+        rewardsService.calculateRewards(allUsers);
 
         for (User user : allUsers) {
             assertTrue(user.getUserRewards().size() > 0);
@@ -105,4 +123,140 @@ public class TestPerformance {
         assertTrue(TimeUnit.MINUTES.toSeconds(20) >= TimeUnit.MILLISECONDS.toSeconds(stopWatch.getTime()));
     }
 
+    @EnabledIfSystemProperty(named = "tourguide.benchmarks", matches = "true")
+    @Test
+    public void simulatedTrackingThroughput() {
+        // Users move between attractions and calls take a realistic, long-tailed time
+        LatencyModel latency = new LatencyModel(5, 0.5, 0.01, 100);
+        GpsUtil gpsUtil = new SimulatedGpsUtil(new GpsUtil().getAttractions(),
+                MovementModel.ATTRACTION_CLUSTERS, 5, 0.05, latency);
+        RewardsService rewardsService = new RewardsService(gpsUtil, new SimulatedRewardCentral(latency));
+        InternalTestHelper.setInternalUserNumber(1000);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        List<User> allUsers = tourGuideService.getAllUsers();
+        int rounds = 5;
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        for (int round = 0; round < rounds; round++) {
+            allUsers.parallelStream().forEach(tourGuideService::trackUserLocation);
+        }
+        allUsers.parallelStream().forEach(rewardsService::calculateRewards);
+        stopWatch.stop();
+        tourGuideService.tracker.stopTracking();
+
+        long rewardedUsers = allUsers.stream().filter(u -> !u.getUserRewards().isEmpty()).count();
+        double usersPerSecond = allUsers.size() * rounds * 1000.0 / Math.max(1, stopWatch.getTime());
+        System.out.println("simulatedTrackingThroughput: " + Math.round(usersPerSecond) + " locations/s, "
+                + rewardedUsers + "/" + allUsers.size() + " users rewarded after " + rounds + " rounds.");
+        assertTrue(rewardedUsers > allUsers.size() / 2);
+    }
+
+    @EnabledIfSystemProperty(named = "tourguide.benchmarks", matches = "true")
+    @Test
+    public void latestLocationStoreDuringTracking() throws InterruptedException {
+        // Raise up to 1,000,000 to compare both read paths at production scale
+        int userNumber = 100000;
+        int cycles = 3;
+        for (boolean storeEnabled : new boolean[] { false, true }) {
+            GpsUtil gpsUtil = new SimulatedGpsUtil(new GpsUtil().getAttractions(),
+                    MovementModel.ATTRACTION_CLUSTERS, 5, 0.05, LatencyModel.none());
+            RewardsService rewardsService = new RewardsService(gpsUtil, new SimulatedRewardCentral(LatencyModel.none()));
+            InternalTestHelper.setInternalUserNumber(userNumber);
+            TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+            tourGuideService.setLatestLocationStoreEnabled(storeEnabled);
+            List<User> allUsers = tourGuideService.getAllUsers();
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            double[] coordinates = new double[2];
+
+            long baseline = usedHeapAfterGc();
+            long gcCountBefore = gcCount();
+            long gcTimeBefore = gcTimeMillis();
+            long reads = 0;
+            long readBytes = 0;
+            tourGuideService.tracker.setInterval(Duration.ofSeconds(10));
+            tourGuideService.tracker.resume();
+            // Nearby-attraction lookups keep reading coordinates while the tracker writes them
+            while (tourGuideService.tracker.getHistory().size() < cycles) {
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                for (User user : allUsers) {
+                    tourGuideService.readUserCoordinates(user, coordinates);
+                }
+                readBytes += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                reads += allUsers.size();
+            }
+            tourGuideService.tracker.stopTracking();
+            rewardsService.shutdown();
+            long gcCount = gcCount() - gcCountBefore;
+            long gcTime = gcTimeMillis() - gcTimeBefore;
+            long heap = usedHeapAfterGc() - baseline;
+
+            System.out.println("latestLocationStoreDuringTracking: " + userNumber + " users, " + cycles
+                    + " cycles, store " + (storeEnabled ? "enabled" : "disabled") + ": heap growth "
+                    + heap / 1024 + " KB, " + gcCount + " GCs (" + gcTime + " ms), "
+                    + readBytes / Math.max(1, reads) + " bytes allocated per coordinate read, off-heap "
+                    + tourGuideService.getLatestLocations().getOffHeapBytes() / 1024 + " KB.");
+            assertEquals(userNumber, tourGuideService.getLatestLocations().size());
+            if (storeEnabled) {
+                // Reads served from the store never materialize a location
+                assertTrue(readBytes / Math.max(1, reads) < 8);
+            }
+        }
+    }
+
+    @EnabledIfSystemProperty(named = "tourguide.benchmarks", matches = "true")
+    @Test
+    public void rewardsSerializationCost() throws Exception {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        UUID userId = UUID.randomUUID();
+        List<UserReward> rewards = new GpsUtil().getAttractions().stream()
+                .map(a -> new UserReward(new VisitedLocation(userId, a, new Date()), a, 500))
+                .collect(Collectors.toList());
+        List<UserRewardDTO> dtos = rewards.stream().map(UserRewardDTO::new).collect(Collectors.toList());
+
+        long legacyBytes = serializationCost("legacy json", json, rewards);
+        long compactBytes = serializationCost("compact json", json, dtos);
+        serializationCost("compact smile", Jackson2ObjectMapperBuilder.smile().build(), dtos);
+        serializationCost("compact cbor", Jackson2ObjectMapperBuilder.cbor().build(), dtos);
+        assertTrue(compactBytes < legacyBytes);
+    }
+
+    private static long serializationCost(String label, ObjectMapper mapper, Object response) throws Exception {
+        int iterations = 20000;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int bytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            bytes = mapper.writeValueAsBytes(response).length;
+        }
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(response);
+        }
+        long cpuPerResponse = (threads.getCurrentThreadCpuTime() - cpuStart) / iterations;
+        System.out.println("rewardsSerializationCost " + label + ": " + bytes + " bytes, "
+                + cpuPerResponse / 1000 + " us CPU per response.");
+        return bytes;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcTimeMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
 }
@@ -0,0 +1,129 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.tourguide.resilience.ExternalServiceException;
+import com.openclassrooms.tourguide.resilience.ResiliencePolicy;
+import com.openclassrooms.tourguide.resilience.ResilientExecutor;
+
+public class TestResilientExecutor {
+
+    @Test
+    public void slowCallTimesOut() {
+        ResilientExecutor executor = new ResilientExecutor("slow",
+                new ResiliencePolicy(Duration.ofMillis(100), 10, false, 100, Duration.ofSeconds(10)));
+
+        long start = System.nanoTime();
+        assertThrows(ExternalServiceException.class, () -> executor.call(() -> {
+            TimeUnit.SECONDS.sleep(5);
+            return 1;
+        }));
+        executor.shutdown();
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(1, executor.getTimeouts());
+    }
+
+    @Test
+    public void timeoutsRaiseTheRecordedP95() {
+        ResilientExecutor executor = new ResilientExecutor("degraded",
+                new ResiliencePolicy(Duration.ofMillis(50), 10, false, 100, Duration.ofSeconds(10)));
+
+        for (int i = 0; i < 20; i++) {
+            assertThrows(ExternalServiceException.class, () -> executor.call(() -> {
+                TimeUnit.SECONDS.sleep(5);
+                return 1;
+            }));
+        }
+        executor.shutdown();
+
+        assertTrue(executor.getLatencies().getP95Nanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void circuitOpensAfterRepeatedFailures() {
+        ResilientExecutor executor = new ResilientExecutor("failing",
+                new ResiliencePolicy(Duration.ofMillis(500), 10, false, 3, Duration.ofSeconds(10)));
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(ExternalServiceException.class, () -> executor.call(() -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("down");
+            }));
+        }
+        executor.shutdown();
+
+        assertTrue(executor.isCircuitOpen());
+        assertEquals(4, calls.get());
+        assertEquals(6, executor.getRejections());
+    }
+
+    @Test
+    public void slowCallIsHedgedOnceLatencyExceedsP95() {
+        ResilientExecutor executor = new ResilientExecutor("hedged",
+                new ResiliencePolicy(Duration.ofSeconds(2), 10, true, 100, Duration.ofSeconds(10)));
+        for (int i = 0; i < 20; i++) {
+            executor.call(() -> 1);
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        long start = System.nanoTime();
+        int result = executor.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                TimeUnit.SECONDS.sleep(5);
+            }
+            return 2;
+        });
+        executor.shutdown();
+
+        assertEquals(2, result);
+        assertEquals(1, executor.getHedgedCalls());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test
+    public void callsAreRecordedAsFlightRecorderEvents() throws IOException {
+        ResilientExecutor executor = new ResilientExecutor("recorded",
+                new ResiliencePolicy(Duration.ofMillis(100), 10, false, 100, Duration.ofSeconds(10)));
+        Path file = Files.createTempFile("tourguide", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.openclassrooms.tourguide.ExternalCall");
+            recording.start();
+            executor.call(() -> 1);
+            assertThrows(ExternalServiceException.class, () -> executor.call(() -> {
+                TimeUnit.SECONDS.sleep(5);
+                return 1;
+            }));
+            recording.stop();
+            recording.dump(file);
+        }
+        executor.shutdown();
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> "recorded".equals(e.getString("dependency")))
+                .collect(Collectors.toList());
+        Files.delete(file);
+        assertEquals(2, events.size());
+        assertEquals("success", events.get(0).getString("outcome"));
+        assertEquals("timeout", events.get(1).getString("outcome"));
+        assertTrue(events.get(1).getDuration().toMillis() >= 100);
+    }
+}
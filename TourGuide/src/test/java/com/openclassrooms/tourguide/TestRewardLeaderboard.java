@@ -0,0 +1,132 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.dto.LeaderboardEntryDTO;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.leaderboard.RewardLeaderboard;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+public class TestRewardLeaderboard {
+
+    @Test
+    public void ranksUsersByCumulativePoints() {
+        GpsUtil gpsUtil = new GpsUtil();
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+        RewardLeaderboard leaderboard = new RewardLeaderboard(tourGuideService, 4);
+        List<Attraction> attractions = gpsUtil.getAttractions();
+
+        User low = rewarded(attractions, "low", 5);
+        User high = rewarded(attractions, "high", 300, 200);
+        User tied = rewarded(attractions, "tied", 5);
+        User none = new User(UUID.randomUUID(), "none", "000", "none@tourGuide.com");
+        List.of(low, high, tied).forEach(leaderboard::update);
+        tourGuideService.tracker.stopTracking();
+
+        List<LeaderboardEntryDTO> top = leaderboard.getTop(2);
+        assertEquals(2, top.size());
+        assertEquals("high", top.get(0).getUserName());
+        assertEquals(500, top.get(0).getRewardPoints());
+        assertEquals(1, top.get(0).getRank());
+        assertEquals(2, top.get(1).getRank());
+
+        assertEquals(2, leaderboard.getStanding(low).getRank());
+        assertEquals(2, leaderboard.getStanding(tied).getRank());
+        assertEquals(4, leaderboard.getStanding(none).getRank());
+    }
+
+    @Test
+    public void followsNewRewards() {
+        GpsUtil gpsUtil = new GpsUtil();
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+        RewardLeaderboard leaderboard = new RewardLeaderboard(tourGuideService, 4);
+        List<Attraction> attractions = gpsUtil.getAttractions();
+
+        User first = rewarded(attractions, "first", 10);
+        User second = rewarded(attractions, "second", 20);
+        leaderboard.update(first);
+        leaderboard.update(second);
+        assertEquals(2, leaderboard.getStanding(first).getRank());
+
+        addReward(first, attractions.get(first.getUserRewards().size()), 15);
+        leaderboard.update(first);
+        tourGuideService.tracker.stopTracking();
+
+        assertEquals(1, leaderboard.getStanding(first).getRank());
+        assertEquals("first", leaderboard.getTop(1).get(0).getUserName());
+        assertEquals(2, leaderboard.getTop(10).size());
+    }
+
+    @Test
+    public void staysConsistentUnderConcurrentWritersOfTheSameUser() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+        RewardLeaderboard leaderboard = new RewardLeaderboard(tourGuideService, 4);
+        List<Attraction> attractions = gpsUtil.getAttractions();
+        int writersPerUser = 4;
+        int rewardsPerWriter = 5;
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(new User(UUID.randomUUID(), "user" + i, "000", "user" + i + "@tourGuide.com"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (User user : users) {
+            for (int w = 0; w < writersPerUser; w++) {
+                int writer = w;
+                executor.submit(() -> {
+                    for (int round = 0; round < rewardsPerWriter; round++) {
+                        int index = writer * rewardsPerWriter + round;
+                        addReward(user, attractions.get(index), index + 1);
+                        leaderboard.update(user);
+                    }
+                });
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        tourGuideService.tracker.stopTracking();
+
+        // No re-sync: the last update of each user must have left their full score
+        int expected = (writersPerUser * rewardsPerWriter) * (writersPerUser * rewardsPerWriter + 1) / 2;
+        List<LeaderboardEntryDTO> top = leaderboard.getTop(1000);
+        assertEquals(users.size(), top.size());
+        top.forEach(entry -> {
+            assertEquals(1, entry.getRank());
+            assertEquals(expected, entry.getRewardPoints());
+        });
+        users.forEach(user -> assertEquals(1, leaderboard.getStanding(user).getRank()));
+    }
+
+    private static User rewarded(List<Attraction> attractions, String userName, int... points) {
+        User user = new User(UUID.randomUUID(), userName, "000", userName + "@tourGuide.com");
+        for (int p : points) {
+            addReward(user, attractions.get(user.getUserRewards().size()), p);
+        }
+        return user;
+    }
+
+    private static void addReward(User user, Attraction attraction, int points) {
+        user.addUserReward(new UserReward(new VisitedLocation(user.getUserId(), attraction, new Date()), attraction, points));
+    }
+}
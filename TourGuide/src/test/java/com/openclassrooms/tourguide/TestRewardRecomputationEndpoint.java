@@ -0,0 +1,89 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardRecomputation;
+import com.openclassrooms.tourguide.service.RewardRecomputationEndpoint;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestRewardRecomputationEndpoint {
+
+    @Test
+    public void cancelStopsTheRunningRecomputation() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral()) {
+            @Override
+            public void calculateRewards(User user) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        InternalTestHelper.setInternalUserNumber(100);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        RewardRecomputationEndpoint endpoint = new RewardRecomputationEndpoint(rewardsService, tourGuideService);
+
+        assertEquals(RewardRecomputation.State.RUNNING, endpoint.start(null).get("state"));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(RewardRecomputation.State.RUNNING, endpoint.cancel().get("state"));
+        release.countDown();
+        Map<String, Object> status = awaitEnd(endpoint);
+        tourGuideService.tracker.stopTracking();
+        rewardsService.shutdown();
+
+        assertEquals(RewardRecomputation.State.CANCELLED, status.get("state"));
+        assertEquals(1, status.get("processedUsers"));
+        assertEquals(100, status.get("totalUsers"));
+    }
+
+    @Test
+    public void errorsFailTheRecomputation() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral()) {
+            @Override
+            public void calculateRewards(User user) {
+                throw new AssertionError("reward calculation broken");
+            }
+        };
+        InternalTestHelper.setInternalUserNumber(1000);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        RewardRecomputationEndpoint endpoint = new RewardRecomputationEndpoint(rewardsService, tourGuideService);
+
+        endpoint.start(null);
+        Map<String, Object> status = awaitEnd(endpoint);
+
+        // A failed recomputation can be started again
+        assertEquals(RewardRecomputation.State.FAILED, status.get("state"));
+        endpoint.start(null);
+        assertEquals(RewardRecomputation.State.FAILED, awaitEnd(endpoint).get("state"));
+        tourGuideService.tracker.stopTracking();
+        rewardsService.shutdown();
+    }
+
+    private static Map<String, Object> awaitEnd(RewardRecomputationEndpoint endpoint) throws InterruptedException {
+        Map<String, Object> status = endpoint.status();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (status.get("state") == RewardRecomputation.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = endpoint.status();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,72 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.dto.UserRewardDTO;
+import com.openclassrooms.tourguide.user.UserReward;
+
+public class TestRewardsSerialization {
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    private final List<UserReward> rewards = rewardsForEveryAttraction();
+    private final List<UserRewardDTO> dtos = rewards.stream().map(UserRewardDTO::new).collect(Collectors.toList());
+
+    @Test
+    public void compactJsonCarriesTheSameAttraction() throws Exception {
+        JsonNode first = json.readTree(json.writeValueAsBytes(dtos)).get(0);
+        UserReward reward = rewards.get(0);
+
+        assertEquals(reward.attraction.attractionName, first.get("attraction").get("attractionName").asText());
+        assertEquals(reward.attraction.attractionId.toString(), first.get("attraction").get("attractionId").asText());
+        assertEquals(reward.getRewardPoints(), first.get("rewardPoints").asInt());
+        assertEquals(reward.visitedLocation.timeVisited.getTime(), first.get("timeVisited").asLong());
+    }
+
+    @Test
+    public void binaryFormatsRoundTrip() throws Exception {
+        JsonNode fromSmile = smile.readTree(smile.writeValueAsBytes(dtos));
+        JsonNode fromCbor = cbor.readTree(cbor.writeValueAsBytes(dtos));
+        JsonNode fromJson = json.readTree(json.writeValueAsBytes(dtos));
+
+        assertEquals(fromJson, fromSmile);
+        assertEquals(fromJson, fromCbor);
+    }
+
+    @Test
+    public void compactFormatsAreSmaller() throws Exception {
+        int legacyBytes = json.writeValueAsBytes(rewards).length;
+        int compactBytes = json.writeValueAsBytes(dtos).length;
+
+        assertTrue(compactBytes < legacyBytes);
+        assertTrue(smile.writeValueAsBytes(dtos).length < compactBytes);
+        assertTrue(cbor.writeValueAsBytes(dtos).length < compactBytes);
+    }
+
+    private static List<UserReward> rewardsForEveryAttraction() {
+        UUID userId = UUID.randomUUID();
+        List<Attraction> attractions = new GpsUtil().getAttractions();
+        return attractions.stream()
+                .map(a -> new UserReward(new VisitedLocation(userId, a, new Date()), a, 500))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,23 +1,30 @@
 package com.openclassrooms.tourguide;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import gpsUtil.location.Location;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardRecomputation;
 import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.RewardsWarmUpHealthIndicator;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
 import com.openclassrooms.tourguide.user.UserReward;
@@ -41,6 +48,52 @@ public class TestRewardsService {
         assertTrue(userRewards.size() == 1);
     }
 
+    @Test
+    public void rewardPointsWarmUpInBackground() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+        // Available on demand while the warm-up is still running
+        assertTrue(rewardsService.getRewardPoints(rewardsService.getAttractions().get(0), user) > 0);
+
+        assertTrue(rewardsService.awaitWarmUp(30, TimeUnit.SECONDS));
+        assertTrue(rewardsService.isWarmedUp());
+        assertEquals(rewardsService.getAttractions().size(), rewardsService.getWarmedUpAttractions());
+    }
+
+    @Test
+    public void failedWarmUpLoadsKeepReadinessOutOfService() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        Set<UUID> failedOnce = ConcurrentHashMap.newKeySet();
+        RewardCentral flakyRewardCentral = new RewardCentral() {
+            @Override
+            public int getAttractionRewardPoints(UUID attractionId, UUID userId) {
+                if (failedOnce.add(attractionId)) {
+                    throw new IllegalStateException("reward central unavailable");
+                }
+                return 7;
+            }
+        };
+        RewardsService rewardsService = new RewardsService(gpsUtil, flakyRewardCentral);
+        RewardsWarmUpHealthIndicator healthIndicator = new RewardsWarmUpHealthIndicator(rewardsService);
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+
+        assertTrue(rewardsService.awaitWarmUp(30, TimeUnit.SECONDS));
+        assertFalse(rewardsService.isWarmedUp());
+        assertEquals(0, rewardsService.getWarmedUpAttractions());
+        assertEquals(rewardsService.getAttractions().size(), rewardsService.getFailedWarmUpLoads());
+        assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+
+        // The failed loads are forgotten, so the next lookups load the missing points
+        rewardsService.getAttractions().forEach(attraction ->
+                assertEquals(7, rewardsService.getRewardPoints(attraction, user)));
+        rewardsService.shutdown();
+
+        assertTrue(rewardsService.isWarmedUp());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+    }
+
     @Test
     public void isWithinAttractionProximity() {
         GpsUtil gpsUtil = new GpsUtil();
@@ -73,4 +126,23 @@ public class TestRewardsService {
         assertEquals(gpsUtil.getAttractions().size(), userRewards.size());
     }
 
+    @Test
+    public void bulkRecomputationAppliesNewProximityBuffer() {
+        GpsUtil gpsUtil = new GpsUtil();
+        RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+        InternalTestHelper.setInternalUserNumber(1000);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+        List<User> users = tourGuideService.getAllUsers();
+
+        rewardsService.setProximityBuffer(Integer.MAX_VALUE);
+        RewardRecomputation recomputation = rewardsService.startRecomputation(users);
+        recomputation.await();
+        tourGuideService.tracker.stopTracking();
+        rewardsService.shutdown();
+
+        assertEquals(RewardRecomputation.State.COMPLETED, recomputation.getState());
+        assertEquals(users.size(), recomputation.getProcessedUsers());
+        users.forEach(user -> assertEquals(rewardsService.getAttractions().size(), user.getUserRewards().size()));
+    }
+
 }
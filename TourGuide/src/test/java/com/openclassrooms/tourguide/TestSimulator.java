@@ -0,0 +1,131 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.simulator.LatencyModel;
+import com.openclassrooms.tourguide.simulator.MovementModel;
+import com.openclassrooms.tourguide.simulator.SimulatedGpsUtil;
+
+public class TestSimulator {
+
+    // Three attractions a few dozen miles apart
+    private static final List<Attraction> ATTRACTIONS = List.of(
+            new Attraction("Prairie", "Hays", "KS", 40.0, -100.0),
+            new Attraction("Canyon", "Hays", "KS", 40.5, -100.0),
+            new Attraction("Lake", "Hays", "KS", 40.0, -99.3));
+
+    @Test
+    public void randomWalkStepsStayBounded() {
+        double stepMiles = 5;
+        SimulatedGpsUtil gpsUtil = new SimulatedGpsUtil(ATTRACTIONS, MovementModel.RANDOM_WALK,
+                stepMiles, 0.05, LatencyModel.none(), new Random(42));
+        // Offsets are cut at 3 typical distances along each axis
+        double maxStepMiles = 3 * Math.sqrt(2) * stepMiles;
+
+        for (int u = 0; u < 50; u++) {
+            UUID userId = new UUID(0, u);
+            VisitedLocation previous = gpsUtil.getUserLocation(userId);
+            for (int i = 0; i < 200; i++) {
+                VisitedLocation next = gpsUtil.getUserLocation(userId);
+                assertTrue(miles(previous, next) <= maxStepMiles * 1.01);
+                previous = next;
+            }
+        }
+    }
+
+    @Test
+    public void randomWalkKeepsValidCoordinates() {
+        // Long steps from a corner of the map, so that the walk keeps crossing the edges
+        List<Attraction> corner = List.of(new Attraction("Edge", "Nowhere", "NA", 85.0, 179.9));
+        SimulatedGpsUtil gpsUtil = new SimulatedGpsUtil(corner, MovementModel.RANDOM_WALK,
+                100, 0.05, LatencyModel.none(), new Random(42));
+
+        for (int u = 0; u < 20; u++) {
+            UUID userId = new UUID(0, u);
+            for (int i = 0; i < 200; i++) {
+                VisitedLocation location = gpsUtil.getUserLocation(userId);
+                assertTrue(Math.abs(location.location.latitude) <= 85.05112878);
+                assertTrue(location.location.longitude >= -180 && location.location.longitude < 180);
+            }
+        }
+    }
+
+    @Test
+    public void attractionClustersConcentrateUsersNearAttractions() {
+        double clustered = shareNearAttractions(MovementModel.ATTRACTION_CLUSTERS);
+        double randomWalk = shareNearAttractions(MovementModel.RANDOM_WALK);
+
+        assertTrue(clustered > 0.75);
+        assertTrue(randomWalk < 0.05);
+    }
+
+    @Test
+    public void latencySamplesShowSpikesAndSpread() {
+        LatencyModel latency = new LatencyModel(20, 0.5, 0.05, 1000, new Random(7));
+        int samples = 10000;
+        int spikes = 0;
+        List<Long> regular = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            long millis = latency.sampleMillis();
+            if (millis == 1000) {
+                spikes++;
+            } else {
+                regular.add(millis);
+            }
+        }
+        Collections.sort(regular);
+
+        assertEquals(0.05, spikes / (double) samples, 0.01);
+        assertEquals(20, regular.get(regular.size() / 2), 1);
+        // One sigma either side of the median of a log-normal: 20 / e^0.5 and 20 * e^0.5
+        assertEquals(12.1, regular.get((int) (regular.size() * 0.1587)), 1.5);
+        assertEquals(33.0, regular.get((int) (regular.size() * 0.8413)), 1.5);
+        assertEquals(0, LatencyModel.none().sampleMillis());
+    }
+
+    /**
+     * Share of locations within 5 miles of an attraction, once users had 20 requests to settle.
+     */
+    private static double shareNearAttractions(MovementModel movementModel) {
+        SimulatedGpsUtil gpsUtil = new SimulatedGpsUtil(ATTRACTIONS, movementModel,
+                5, 0.05, LatencyModel.none(), new Random(42));
+        int near = 0;
+        int total = 0;
+        for (int u = 0; u < 50; u++) {
+            UUID userId = new UUID(0, u);
+            for (int i = 0; i < 220; i++) {
+                VisitedLocation location = gpsUtil.getUserLocation(userId);
+                if (i < 20) {
+                    continue;
+                }
+                total++;
+                if (ATTRACTIONS.stream().anyMatch(a -> miles(location, a.latitude, a.longitude) < 5)) {
+                    near++;
+                }
+            }
+        }
+        return near / (double) total;
+    }
+
+    private static double miles(VisitedLocation from, VisitedLocation to) {
+        return miles(from, to.location.latitude, to.location.longitude);
+    }
+
+    private static double miles(VisitedLocation from, double latitude, double longitude) {
+        double north = (latitude - from.location.latitude) * 69.0;
+        double longitudeDelta = ((longitude - from.location.longitude) % 360 + 540) % 360 - 180;
+        double east = longitudeDelta * 69.0 * Math.cos(Math.toRadians((latitude + from.location.latitude) / 2));
+        return Math.sqrt(north * north + east * east);
+    }
+}
@@ -0,0 +1,125 @@
+package com.openclassrooms.tourguide;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TestTourGuideController {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TourGuideService tourGuideService;
+
+	@Autowired
+	private RewardsService rewardsService;
+
+	private User user;
+
+	@BeforeEach
+	public void addReward() {
+		user = tourGuideService.getUser("internalUser0");
+		Attraction attraction = rewardsService.getAttractions().get(0);
+		user.addUserReward(new UserReward(new VisitedLocation(user.getUserId(), attraction, new Date()), attraction, 42));
+	}
+
+	@Test
+	public void getRewardsAsCompactJson() throws Exception {
+		mockMvc.perform(get("/getRewards").param("userName", user.getUserName()))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/json"))
+				.andExpect(jsonPath("$[0].attraction.attractionName").isString())
+				.andExpect(jsonPath("$[0].rewardPoints").value(42));
+	}
+
+	@Test
+	public void getRewardsAsSmile() throws Exception {
+		mockMvc.perform(get("/getRewards").param("userName", user.getUserName())
+						.header("Accept", "application/x-jackson-smile"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"));
+	}
+
+	@Test
+	public void getRewardsAsCbor() throws Exception {
+		mockMvc.perform(get("/getRewards").param("userName", user.getUserName())
+						.header("Accept", "application/cbor"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/cbor"));
+	}
+
+	@Test
+	public void getRewardsNotModifiedUntilUserChanges() throws Exception {
+		MvcResult first = mockMvc.perform(get("/getRewards").param("userName", user.getUserName()))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("ETag"))
+				.andExpect(header().string("Vary", containsString("Accept")))
+				.andReturn();
+		String etag = first.getResponse().getHeader("ETag");
+
+		mockMvc.perform(get("/getRewards").param("userName", user.getUserName()).header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("Vary", containsString("Accept")))
+				.andExpect(content().string(""));
+
+		Attraction attraction = rewardsService.getAttractions().get(1);
+		user.addUserReward(new UserReward(new VisitedLocation(user.getUserId(), attraction, new Date()), attraction, 7));
+
+		mockMvc.perform(get("/getRewards").param("userName", user.getUserName()).header("If-None-Match", etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void getLocationNotModifiedWhileLocationUnchanged() throws Exception {
+		String etag = mockMvc.perform(get("/getLocation").param("userName", user.getUserName()))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+
+		mockMvc.perform(get("/getLocation").param("userName", user.getUserName()).header("If-None-Match", etag))
+				.andExpect(status().isNotModified());
+		// The same version issued by another node or before a restart
+		String foreignTag = "\"" + user.getVersion() + "\"";
+		mockMvc.perform(get("/getLocation").param("userName", user.getUserName()).header("If-None-Match", foreignTag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void getLocationHistoryStreamsAPage() throws Exception {
+		MvcResult result = mockMvc.perform(get("/getLocationHistory").param("userName", user.getUserName())
+						.param("offset", "1").param("limit", "1"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.userName").value(user.getUserName()))
+				.andExpect(jsonPath("$.total").value(user.getVisitedLocations().size()))
+				.andExpect(jsonPath("$.offset").value(1))
+				.andExpect(jsonPath("$.locations.length()").value(1));
+	}
+}
@@ -1,8 +1,11 @@
 package com.openclassrooms.tourguide;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,9 +14,11 @@ import org.junit.jupiter.api.Test;
 
 import gpsUtil.GpsUtil;
 import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
 import gpsUtil.location.VisitedLocation;
 import rewardCentral.RewardCentral;
 import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.location.LatestLocationStore;
 import com.openclassrooms.tourguide.service.RewardsService;
 import com.openclassrooms.tourguide.service.TourGuideService;
 import com.openclassrooms.tourguide.user.User;
@@ -32,6 +37,91 @@ public class TestTourGuideService {
 		tourGuideService.tracker.stopTracking();
 		assertTrue(visitedLocation.userId.equals(user.getUserId()));
 	}
+
+	@Test
+	public void readUserCoordinatesFromLatestLocationStore() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		VisitedLocation tracked = tourGuideService.trackUserLocation(user);
+		double[] stored = new double[2];
+		tourGuideService.readUserCoordinates(user, stored);
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(10, 20), new Date()));
+		double[] added = new double[2];
+		tourGuideService.readUserCoordinates(user, added);
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(tracked.location.latitude, stored[0]);
+		assertEquals(tracked.location.longitude, stored[1]);
+		assertEquals(10, added[0]);
+		assertEquals(20, added[1]);
+		assertEquals(1, tourGuideService.getLatestLocations().size());
+	}
+
+	@Test
+	public void latestLocationStoreKeepsTheMostRecentVisit() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(10, 20), new Date()));
+		// A late location, older than the one already in the history
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(30, 40), new Date(0)));
+		double[] coordinates = new double[2];
+		tourGuideService.readUserCoordinates(user, coordinates);
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(10, coordinates[0]);
+		assertEquals(20, coordinates[1]);
+		assertEquals(10, tourGuideService.getUserLocation(user).location.latitude);
+	}
+
+	@Test
+	public void getUserLocationAfterHistoryWasCleared() {
+		GpsUtil gpsUtil = new GpsUtil();
+		RewardsService rewardsService = new RewardsService(gpsUtil, new RewardCentral());
+		InternalTestHelper.setInternalUserNumber(0);
+		TourGuideService tourGuideService = new TourGuideService(gpsUtil, rewardsService);
+
+		User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+		tourGuideService.trackUserLocation(user);
+		// Same history size as when the location was stored, but a different location
+		user.clearVisitedLocations();
+		user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(10, 20), new Date()));
+		VisitedLocation visitedLocation = tourGuideService.getUserLocation(user);
+		tourGuideService.tracker.stopTracking();
+
+		assertEquals(10, visitedLocation.location.latitude);
+		assertEquals(20, visitedLocation.location.longitude);
+	}
+
+	@Test
+	public void latestLocationStoreFindsEveryUser() {
+		LatestLocationStore store = new LatestLocationStore();
+		List<UUID> userIds = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			UUID userId = UUID.randomUUID();
+			userIds.add(userId);
+			store.update(userId, new VisitedLocation(userId, new Location(i % 90, 0), new Date()), 1);
+		}
+		store.update(userIds.get(0), new VisitedLocation(userIds.get(0), new Location(-1, 0), new Date()), 2);
+
+		double[] coordinates = new double[2];
+		assertEquals(5000, store.size());
+		assertTrue(store.readCoordinates(userIds.get(0), 2, coordinates));
+		assertEquals(-1, coordinates[0]);
+		assertFalse(store.readCoordinates(userIds.get(0), 1, coordinates));
+		assertFalse(store.readCoordinates(UUID.randomUUID(), 1, coordinates));
+		for (int i = 1; i < userIds.size(); i++) {
+			assertTrue(store.readCoordinates(userIds.get(i), 1, coordinates));
+			assertEquals(i % 90, coordinates[0]);
+		}
+	}
 	@Test
 	public void addUser() {
 		GpsUtil gpsUtil = new GpsUtil();
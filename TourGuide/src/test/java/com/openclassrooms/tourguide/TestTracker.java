@@ -0,0 +1,121 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.GpsUtil;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.tracker.ConcurrencyTuner;
+import com.openclassrooms.tourguide.tracker.Tracker;
+import com.openclassrooms.tourguide.tracker.TrackerCycleStats;
+
+public class TestTracker {
+
+    @Test
+    public void cyclesNeverOverlapAndStopWhenPaused() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        InternalTestHelper.setInternalUserNumber(5);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+        Tracker tracker = tourGuideService.tracker;
+        assertTrue(tracker.isPaused());
+
+        tracker.setInterval(Duration.ofMillis(300));
+        tracker.resume();
+        awaitUntil(() -> tracker.getHistory().size() >= 3);
+        tracker.pause();
+        awaitUntil(() -> !tracker.isRunning());
+        int cycles = tracker.getHistory().size();
+        TimeUnit.MILLISECONDS.sleep(700);
+        tracker.stopTracking();
+
+        assertEquals(cycles, tracker.getHistory().size());
+        List<TrackerCycleStats> history = tracker.getHistory();
+        for (int i = 0; i < history.size(); i++) {
+            assertEquals(5, history.get(i).getTrackedUsers());
+            if (i > 0) {
+                TrackerCycleStats previous = history.get(i - 1);
+                assertFalse(history.get(i).getStartTime()
+                        .isBefore(previous.getStartTime().plusMillis(previous.getDurationMillis())));
+            }
+        }
+    }
+
+    @Test
+    public void cycleStopsAtItsDeadline() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        InternalTestHelper.setInternalUserNumber(50);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+        Tracker tracker = tourGuideService.tracker;
+
+        tracker.setWorkers(1);
+        tracker.setInterval(Duration.ofMillis(200));
+        tracker.resume();
+        awaitUntil(() -> !tracker.getHistory().isEmpty());
+        tracker.stopTracking();
+
+        TrackerCycleStats cycle = tracker.getHistory().get(0);
+        assertTrue(cycle.getSkippedUsers() > 0);
+        assertEquals(50, cycle.getTrackedUsers() + cycle.getFailedUsers() + cycle.getSkippedUsers());
+        assertTrue(cycle.getDurationMillis() < 1000);
+    }
+
+    @Test
+    public void tunerResizesThePoolAfterEachCycle() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        InternalTestHelper.setInternalUserNumber(5);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+        Tracker tracker = tourGuideService.tracker;
+        ConcurrencyTuner tuner = new ConcurrencyTuner(1, 64, 0.8, null, null);
+
+        tracker.setConcurrencyTuner(tuner);
+        tracker.setAutoTuning(true);
+        tracker.setInterval(Duration.ofSeconds(2));
+        tracker.resume();
+        awaitUntil(() -> tracker.getWorkers() < 64);
+        tracker.stopTracking();
+
+        // Five users need a handful of workers, so the default 64 shrink by the maximum quarter
+        assertEquals(48, tracker.getWorkers());
+        assertEquals("shrinking", tuner.getLastDecision().getReason());
+    }
+
+    @Test
+    public void disablingAutoTuningPinsThePool() throws InterruptedException {
+        GpsUtil gpsUtil = new GpsUtil();
+        InternalTestHelper.setInternalUserNumber(5);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+        Tracker tracker = tourGuideService.tracker;
+        ConcurrencyTuner tuner = new ConcurrencyTuner(1, 64, 0.8, null, null);
+
+        tracker.setConcurrencyTuner(tuner);
+        tracker.setAutoTuning(false);
+        tracker.setInterval(Duration.ofMillis(300));
+        tracker.resume();
+        awaitUntil(() -> tracker.getHistory().size() >= 2);
+        tracker.stopTracking();
+
+        assertFalse(tracker.isAutoTuning());
+        assertNull(tuner.getLastDecision());
+        assertEquals(64, tracker.getWorkers());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the tracker");
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+}
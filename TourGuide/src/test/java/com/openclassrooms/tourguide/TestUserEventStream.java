@@ -0,0 +1,225 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import gpsUtil.GpsUtil;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import rewardCentral.RewardCentral;
+import com.openclassrooms.tourguide.helper.InternalTestHelper;
+import com.openclassrooms.tourguide.service.RewardsService;
+import com.openclassrooms.tourguide.service.TourGuideService;
+import com.openclassrooms.tourguide.stream.UserEventStream;
+import com.openclassrooms.tourguide.user.User;
+
+public class TestUserEventStream {
+
+    @Test
+    public void eventsAreDeliveredInOrder() throws InterruptedException {
+        UserEventStream stream = newStream(16, 60000, new AtomicReference<>());
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        RecordingEmitter emitter = (RecordingEmitter) stream.subscribe(user);
+
+        List<VisitedLocation> published = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            VisitedLocation visitedLocation = visit(user);
+            published.add(visitedLocation);
+            stream.onLocationTracked(user, visitedLocation);
+        }
+        awaitUntil(() -> emitter.sent.size() == 10);
+
+        assertEquals(1, stream.getSubscriberCount(user.getUserId()));
+        assertFalse(emitter.completedByStream);
+        stream.shutdown();
+        awaitUntil(() -> emitter.completedByStream);
+        for (int i = 0; i < 10; i++) {
+            VisitedLocation expected = published.get(i);
+            assertTrue(emitter.sent.get(i).build().stream().anyMatch(part -> part.getData() == expected));
+        }
+    }
+
+    @Test
+    public void slowSubscriberIsDisconnectedWithoutBlockingPublishers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        UserEventStream stream = newStream(4, 60000, new AtomicReference<>(release));
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        RecordingEmitter slow = (RecordingEmitter) stream.subscribe(user);
+
+        // The first send blocks while holding the emitter's monitor, which complete() also needs
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            stream.onLocationTracked(user, visit(user));
+        }
+        long publishMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(0, stream.getSubscriberCount(user.getUserId()));
+        assertFalse(slow.completedByStream);
+
+        release.countDown();
+        awaitUntil(() -> slow.completedByStream);
+        stream.shutdown();
+
+        assertTrue(publishMillis < 1000);
+        // At most the event being sent plus a full buffer got through before the overflow
+        assertTrue(slow.sent.size() <= 5);
+    }
+
+    @Test
+    public void stalledSubscribersDoNotDelayHealthyOnes() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<CountDownLatch> nextRelease = new AtomicReference<>(release);
+        UserEventStream stream = newStream(16, 60000, nextRelease);
+        User first = new User(UUID.randomUUID(), "first", "000", "first@tourGuide.com");
+        User second = new User(UUID.randomUUID(), "second", "000", "second@tourGuide.com");
+        User healthy = new User(UUID.randomUUID(), "healthy", "000", "healthy@tourGuide.com");
+        RecordingEmitter firstStalled = (RecordingEmitter) stream.subscribe(first);
+        RecordingEmitter secondStalled = (RecordingEmitter) stream.subscribe(second);
+        nextRelease.set(null);
+        RecordingEmitter healthyEmitter = (RecordingEmitter) stream.subscribe(healthy);
+
+        for (int i = 0; i < 10; i++) {
+            stream.onLocationTracked(first, visit(first));
+            stream.onLocationTracked(second, visit(second));
+            stream.onLocationTracked(healthy, visit(healthy));
+        }
+        // Delivered while both stalled writes are still pending, well before their send timeout
+        awaitUntil(() -> healthyEmitter.sent.size() == 10);
+        assertTrue(firstStalled.sent.isEmpty());
+        assertTrue(secondStalled.sent.isEmpty());
+
+        release.countDown();
+        awaitUntil(() -> firstStalled.sent.size() == 10 && secondStalled.sent.size() == 10);
+        stream.shutdown();
+    }
+
+    @Test
+    public void stalledSubscriberIsDroppedAfterTheSendTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        UserEventStream stream = newStream(16, 100, new AtomicReference<>(release));
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        RecordingEmitter stalled = (RecordingEmitter) stream.subscribe(user);
+
+        stream.onLocationTracked(user, visit(user));
+        awaitUntil(() -> stream.getSubscriberCount(user.getUserId()) == 0);
+        // Completing has to wait for the stalled write, but not on the caller's thread
+        assertFalse(stalled.completedByStream);
+
+        release.countDown();
+        awaitUntil(() -> stalled.completedByStream);
+        stream.shutdown();
+    }
+
+    @Test
+    public void completionAndTimeoutRemoveTheSubscription() throws InterruptedException {
+        UserEventStream stream = newStream(16, 60000, new AtomicReference<>());
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        RecordingEmitter completed = (RecordingEmitter) stream.subscribe(user);
+        RecordingEmitter timedOut = (RecordingEmitter) stream.subscribe(user);
+        assertEquals(2, stream.getSubscriberCount(user.getUserId()));
+
+        completed.completion.run();
+        assertEquals(1, stream.getSubscriberCount(user.getUserId()));
+        timedOut.timeout.run();
+        assertEquals(0, stream.getSubscriberCount(user.getUserId()));
+
+        stream.onLocationTracked(user, visit(user));
+        TimeUnit.MILLISECONDS.sleep(100);
+        stream.shutdown();
+        assertTrue(completed.sent.isEmpty());
+        assertTrue(timedOut.sent.isEmpty());
+    }
+
+    /**
+     * @param release latch handed to the emitters created from then on, null for emitters that never stall
+     */
+    private static UserEventStream newStream(int bufferSize, long sendTimeoutMillis,
+                                             AtomicReference<CountDownLatch> release) {
+        GpsUtil gpsUtil = new GpsUtil();
+        InternalTestHelper.setInternalUserNumber(0);
+        TourGuideService tourGuideService = new TourGuideService(gpsUtil, new RewardsService(gpsUtil, new RewardCentral()));
+        tourGuideService.tracker.stopTracking();
+        return new UserEventStream(tourGuideService, bufferSize, 60000, sendTimeoutMillis) {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMillis) {
+                return new RecordingEmitter(release.get());
+            }
+        };
+    }
+
+    private static VisitedLocation visit(User user) {
+        return new VisitedLocation(user.getUserId(), new Location(0, 0), new Date());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for events");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /**
+     * Records what the stream sends; while {@code release} is closed every send blocks, like a stalled client.
+     * As in {@link SseEmitter}, sending and completing share the emitter's monitor, so completing waits
+     * for a stalled send.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        volatile boolean completedByStream;
+        Runnable completion;
+        Runnable timeout;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.add(builder);
+        }
+
+        @Override
+        public synchronized void complete() {
+            completedByStream = true;
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            this.completion = callback;
+        }
+
+        @Override
+        public void onTimeout(Runnable callback) {
+            this.timeout = callback;
+        }
+
+        @Override
+        public void onError(Consumer<Throwable> callback) {
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.openclassrooms.tourguide;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import gpsUtil.location.Attraction;
+import gpsUtil.location.Location;
+import gpsUtil.location.VisitedLocation;
+import com.openclassrooms.tourguide.user.User;
+import com.openclassrooms.tourguide.user.UserReward;
+import com.openclassrooms.tourguide.user.UserSnapshot;
+
+public class TestUserSnapshot {
+
+    @Test
+    public void snapshotIsUnaffectedByLaterWrites() {
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        visit(user, 1000L);
+        UserSnapshot before = user.getSnapshot();
+
+        visit(user, 2000L);
+        assertTrue(user.addUserReward(reward(user, new Attraction("Disneyland", "Anaheim", "CA", 33.8, -117.9))));
+        user.clearVisitedLocations();
+
+        assertEquals(1, before.getVisitedLocations().size());
+        assertEquals(0, before.getUserRewards().size());
+        assertEquals(1, before.getVersion());
+        assertEquals(4, user.getVersion());
+        assertSame(user.getSnapshot(), user.getSnapshot());
+        assertThrows(UnsupportedOperationException.class, () -> before.getVisitedLocations().clear());
+    }
+
+    @Test
+    public void concurrentWritersAndReadersSeeConsistentSnapshots() throws Exception {
+        int writers = 8;
+        int readers = 4;
+        int visitsPerWriter = 2000;
+        List<Attraction> attractions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            attractions.add(new Attraction("Attraction " + i, "City", "ST", i, i));
+        }
+        User user = new User(UUID.randomUUID(), "jon", "000", "jon@tourGuide.com");
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        List<Future<?>> readerResults = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            readerResults.add(executor.submit(() -> {
+                long lastVersion = 0;
+                while (writing.get()) {
+                    UserSnapshot snapshot = user.getSnapshot();
+                    assertTrue(snapshot.getVersion() >= lastVersion);
+                    lastVersion = snapshot.getVersion();
+                    // Every change bumps the version exactly once, so the parts must add up to it
+                    assertEquals(snapshot.getVersion(),
+                            snapshot.getVisitedLocations().size() + snapshot.getUserRewards().size());
+                    assertEquals(snapshot.getVisitedLocations().size(),
+                            snapshot.countVisitedLocationsBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+                    Set<UUID> rewarded = new HashSet<>();
+                    for (UserReward userReward : snapshot.getUserRewards()) {
+                        assertTrue(rewarded.add(userReward.attraction.attractionId));
+                    }
+                    List<VisitedLocation> byTime = snapshot.getVisitedLocationsBetween(0, Long.MAX_VALUE, 0, Integer.MAX_VALUE);
+                    for (int i = 1; i < byTime.size(); i++) {
+                        assertFalse(byTime.get(i).timeVisited.before(byTime.get(i - 1).timeVisited));
+                    }
+                }
+                return null;
+            }));
+        }
+        List<Future<?>> writerResults = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            writerResults.add(executor.submit(() -> {
+                for (int i = 0; i < visitsPerWriter; i++) {
+                    visit(user, (long) i * writers + writer);
+                    user.addUserReward(reward(user, attractions.get(i % attractions.size())));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : writerResults) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<?> result : readerResults) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(writers * visitsPerWriter, user.getVisitedLocations().size());
+        assertEquals(attractions.size(), user.getUserRewards().size());
+        assertEquals(writers * visitsPerWriter + attractions.size(), user.getVersion());
+    }
+
+    private static void visit(User user, long time) {
+        user.addToVisitedLocations(new VisitedLocation(user.getUserId(), new Location(0, 0), new Date(time)));
+    }
+
+    private static UserReward reward(User user, Attraction attraction) {
+        return new UserReward(user.getLastVisitedLocation(), attraction, 1);
+    }
+}